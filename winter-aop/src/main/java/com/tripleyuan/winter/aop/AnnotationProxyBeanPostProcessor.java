@@ -9,14 +9,14 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.tripleyuan.winter.context.ApplicationContextUtils.getRequiredApplicationContext;
 
 public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> implements BeanPostProcessor {
 
-    private final Map<String, Object> originBeans = new HashMap<>(128);
+    private final Map<String, Object> originBeans = new ConcurrentHashMap<>(128);
     private Class<A> annotationClass;
 
     public AnnotationProxyBeanPostProcessor() {
@@ -0,0 +1,261 @@
+package com.tripleyuan.winter.indexer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor which generates a {@code GeneratedBeanFactory} for each @Component class, so that the context
+ * creates beans, invokes @Bean methods and injects @Autowired / @Value members without reflection.
+ * <p>
+ * Disabled by default, enable it by compiler option {@code -Awinter.aot=true}. Members which are not accessible from
+ * the package of bean class (e.g. private fields) are skipped and still injected by reflection.
+ * <p>
+ * Bean classes which have generated factories are written to {@code META-INF/winter.factories}, so that the context
+ * looks up factories of listed classes only. Entries of an existing index are kept on incremental compile, unless the
+ * class is removed or no longer has a factory.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(BeanFactoryProcessor.OPTION_AOT)
+public class BeanFactoryProcessor extends AbstractProcessor {
+
+    public static final String OPTION_AOT = "winter.aot";
+
+    static final String FACTORY_INTERFACE = "com.tripleyuan.winter.context.GeneratedBeanFactory";
+    static final String FACTORY_CLASS_SUFFIX = "__BeanFactory";
+    public static final String FACTORY_INDEX = "META-INF/winter.factories";
+
+    static final String AUTOWIRED_ANNOTATION = "com.tripleyuan.winter.annotation.Autowired";
+    static final String VALUE_ANNOTATION = "com.tripleyuan.winter.annotation.Value";
+    static final String BEAN_ANNOTATION = "com.tripleyuan.winter.annotation.Bean";
+
+    // binary names of bean classes which have generated factories
+    private final Set<String> beanClasses = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_AOT))) {
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        ElementKind kind = element.getKind();
+        if (kind == ElementKind.CLASS && ComponentIndexProcessor.isComponent(element, new HashSet<>())) {
+            TypeElement type = (TypeElement) element;
+            if (isAccessible(type)) {
+                generate(type);
+            }
+        }
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                collect(enclosed);
+            }
+        }
+    }
+
+    // class and its enclosing classes must be accessible from package, and has only one non-private constructor
+    private boolean isAccessible(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            // inner class needs an outer instance
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+        // context requires the only declared constructor
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        return constructors.size() == 1 && !constructors.get(0).getModifiers().contains(Modifier.PRIVATE);
+    }
+
+    private void generate(TypeElement type) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + FACTORY_CLASS_SUFFIX;
+        String typeName = erasure(type.asType());
+
+        StringBuilder sb = new StringBuilder(1024);
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("// Generated by ").append(getClass().getName()).append(", do not edit.\n");
+        sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        sb.append("public final class ").append(simpleName).append(" implements ").append(FACTORY_INTERFACE).append(" {\n\n");
+
+        // constructor:
+        ExecutableElement constructor = ElementFilter.constructorsIn(type.getEnclosedElements()).get(0);
+        sb.append("    @Override\n");
+        sb.append("    public Object newInstance(Object[] args) throws Exception {\n");
+        sb.append("        return new ").append(typeName).append("(").append(arguments(constructor)).append(");\n");
+        sb.append("    }\n");
+
+        // @Bean methods:
+        List<ExecutableElement> beanMethods = nonPrivate(uniqueByName(ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                .filter(m -> hasAnnotation(m, BEAN_ANNOTATION))
+                .toList()));
+        if (!beanMethods.isEmpty()) {
+            sb.append("\n    @Override\n");
+            sb.append("    public Object invokeFactoryMethod(Object configuration, String methodName, Object[] args) throws Exception {\n");
+            sb.append("        switch (methodName) {\n");
+            for (ExecutableElement m : beanMethods) {
+                String target = m.getModifiers().contains(Modifier.STATIC) ? typeName : "((" + typeName + ") configuration)";
+                sb.append("            case \"").append(m.getSimpleName()).append("\":\n");
+                sb.append("                return ").append(target).append(".").append(m.getSimpleName())
+                        .append("(").append(arguments(m)).append(");\n");
+            }
+            sb.append("            default:\n");
+            sb.append("                return NOT_GENERATED;\n");
+            sb.append("        }\n");
+            sb.append("    }\n");
+        }
+
+        // @Autowired / @Value fields:
+        List<VariableElement> fields = nonPrivate(ElementFilter.fieldsIn(type.getEnclosedElements())).stream()
+                .filter(f -> isInjected(f) && !f.getModifiers().contains(Modifier.STATIC) && !f.getModifiers().contains(Modifier.FINAL))
+                .toList();
+        if (!fields.isEmpty()) {
+            sb.append("\n    @Override\n");
+            sb.append("    public boolean injectField(Object bean, String fieldName, Object value) {\n");
+            sb.append("        switch (fieldName) {\n");
+            for (VariableElement f : fields) {
+                sb.append("            case \"").append(f.getSimpleName()).append("\":\n");
+                sb.append("                ((").append(typeName).append(") bean).").append(f.getSimpleName())
+                        .append(" = (").append(erasure(f.asType())).append(") value;\n");
+                sb.append("                return true;\n");
+            }
+            sb.append("            default:\n");
+            sb.append("                return false;\n");
+            sb.append("        }\n");
+            sb.append("    }\n");
+        }
+
+        // @Autowired / @Value setters:
+        List<ExecutableElement> setters = nonPrivate(uniqueByName(ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                .filter(m -> isInjected(m) && m.getParameters().size() == 1 && !m.getModifiers().contains(Modifier.STATIC))
+                .toList()));
+        if (!setters.isEmpty()) {
+            sb.append("\n    @Override\n");
+            sb.append("    public boolean injectMethod(Object bean, String methodName, Object value) throws Exception {\n");
+            sb.append("        switch (methodName) {\n");
+            for (ExecutableElement m : setters) {
+                sb.append("            case \"").append(m.getSimpleName()).append("\":\n");
+                sb.append("                ((").append(typeName).append(") bean).").append(m.getSimpleName())
+                        .append("((").append(erasure(m.getParameters().get(0).asType())).append(") value);\n");
+                sb.append("                return true;\n");
+            }
+            sb.append("            default:\n");
+            sb.append("                return false;\n");
+            sb.append("        }\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+
+        String factoryName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(factoryName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(sb.toString());
+            }
+            this.beanClasses.add(binaryName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + factoryName + ": " + e, type);
+        }
+    }
+
+    private void writeIndex() {
+        // incremental compile processes changed sources only, so keep entries of previous compile which still have factories:
+        List<String> existing = ComponentIndexProcessor.readIndex(processingEnv, FACTORY_INDEX);
+        Set<String> merged = new TreeSet<>(this.beanClasses);
+        for (String name : existing) {
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(name.replace('$', '.'));
+            if (type != null && type.getKind() == ElementKind.CLASS && ComponentIndexProcessor.isComponent(type, new HashSet<>())
+                    && isAccessible(type)) {
+                merged.add(name);
+            }
+        }
+        if (merged.isEmpty() && existing.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", FACTORY_INDEX);
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by " + getClass().getName() + "\n");
+                for (String beanClass : merged) {
+                    writer.write(beanClass);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + FACTORY_INDEX + ": " + e);
+        }
+    }
+
+    private <E extends Element> List<E> nonPrivate(List<E> members) {
+        return members.stream().filter(e -> !e.getModifiers().contains(Modifier.PRIVATE)).toList();
+    }
+
+    // overloaded methods cannot be dispatched by name, leave them to reflection. Must be checked before dropping
+    // private methods, otherwise a private overload would be dispatched to the non-private one.
+    private List<ExecutableElement> uniqueByName(List<ExecutableElement> methods) {
+        Map<String, Integer> counts = new HashMap<>();
+        methods.forEach(m -> counts.merge(m.getSimpleName().toString(), 1, Integer::sum));
+        return methods.stream().filter(m -> counts.get(m.getSimpleName().toString()) == 1).toList();
+    }
+
+    private boolean isInjected(Element element) {
+        return hasAnnotation(element, AUTOWIRED_ANNOTATION) || hasAnnotation(element, VALUE_ANNOTATION);
+    }
+
+    private boolean hasAnnotation(Element element, String annoName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annoName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String arguments(ExecutableElement executable) {
+        List<? extends VariableElement> params = executable.getParameters();
+        StringJoiner sj = new StringJoiner(", ");
+        for (int i = 0; i < params.size(); i++) {
+            sj.add("(" + erasure(params.get(i).asType()) + ") args[" + i + "]");
+        }
+        return sj.toString();
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+}
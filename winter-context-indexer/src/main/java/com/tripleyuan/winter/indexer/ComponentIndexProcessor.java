@@ -0,0 +1,125 @@
+package com.tripleyuan.winter.indexer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor which writes class names annotated with @Component (directly or by meta-annotation such as
+ * {@code @Configuration} and {@code @Controller}) to {@code META-INF/winter.components}, one class per line.
+ * <p>
+ * When the index is present on classpath, component scan reads it instead of walking the classpath.
+ * <p>
+ * Entries of an existing index are kept on incremental compile, unless the class is removed or no longer a component.
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    public static final String COMPONENT_INDEX = "META-INF/winter.components";
+
+    static final String COMPONENT_ANNOTATION = "com.tripleyuan.winter.annotation.Component";
+
+    private final Set<String> components = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        // do not claim annotations, other processors (e.g. lombok) still need them.
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (isComponentClass(element)) {
+            // binary name, so that nested class can be loaded by Class.forName()
+            this.components.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+        }
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                collect(enclosed);
+            }
+        }
+    }
+
+    private boolean isComponentClass(Element element) {
+        ElementKind kind = element.getKind();
+        return kind.isClass() && kind != ElementKind.ENUM && isComponent(element, new HashSet<>());
+    }
+
+    static boolean isComponent(Element element, Set<String> visited) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annoType = (TypeElement) mirror.getAnnotationType().asElement();
+            String annoName = annoType.getQualifiedName().toString();
+            if (annoName.equals(COMPONENT_ANNOTATION)) {
+                return true;
+            }
+            if (!annoName.startsWith("java.lang.annotation.") && visited.add(annoName) && isComponent(annoType, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        // incremental compile processes changed sources only, so keep entries of previous compile which are still components:
+        List<String> existing = readIndex(processingEnv, COMPONENT_INDEX);
+        Set<String> merged = new TreeSet<>(this.components);
+        for (String name : existing) {
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(name.replace('$', '.'));
+            if (type != null && isComponentClass(type)) {
+                merged.add(name);
+            }
+        }
+        if (merged.isEmpty() && existing.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", COMPONENT_INDEX);
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by " + getClass().getName() + "\n");
+                for (String component : merged) {
+                    writer.write(component);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + COMPONENT_INDEX + ": " + e);
+        }
+    }
+
+    // class names of index written by previous compile, or empty list if not exist:
+    static List<String> readIndex(ProcessingEnvironment env, String index) {
+        try {
+            FileObject file = env.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", index);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                return reader.lines().map(String::strip).filter(line -> !line.isEmpty() && !line.startsWith("#")).toList();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.tripleyuan.winter.indexer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tripleyuan.winter.indexer.ComponentIndexProcessorTest.source;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BeanFactoryProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    public void generateFactories() throws Exception {
+        assertThat(compile(true)).isTrue();
+
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            Object factory = cl.loadClass("com.example.HelloBean__BeanFactory").getConstructor().newInstance();
+            Class<?> factoryInterface = cl.loadClass("com.tripleyuan.winter.context.GeneratedBeanFactory");
+
+            Object bean = factoryInterface.getMethod("newInstance", Object[].class)
+                    .invoke(factory, (Object) new Object[]{"hello", 3});
+            assertThat(bean.toString()).isEqualTo("hello:3:null:null");
+
+            var injectField = factoryInterface.getMethod("injectField", Object.class, String.class, Object.class);
+            var injectMethod = factoryInterface.getMethod("injectMethod", Object.class, String.class, Object.class);
+            assertThat(injectField.invoke(factory, bean, "list", List.of("a"))).isEqualTo(true);
+            assertThat(injectMethod.invoke(factory, bean, "setTitle", "Mr")).isEqualTo(true);
+            assertThat(bean.toString()).isEqualTo("hello:3:[a]:Mr");
+            // private member is left to reflection:
+            assertThat(injectField.invoke(factory, bean, "secret", "x")).isEqualTo(false);
+
+            Object configFactory = cl.loadClass("com.example.AppConfig__BeanFactory").getConstructor().newInstance();
+            Object config = factoryInterface.getMethod("newInstance", Object[].class).invoke(configFactory, (Object) new Object[0]);
+            var invokeFactoryMethod = factoryInterface.getMethod("invokeFactoryMethod", Object.class, String.class, Object[].class);
+            assertThat(invokeFactoryMethod.invoke(configFactory, config, "greeting", new Object[]{"world"})).isEqualTo("hello, world");
+            assertThat(invokeFactoryMethod.invoke(configFactory, config, "unknown", new Object[0]))
+                    .isSameAs(factoryInterface.getField("NOT_GENERATED").get(null));
+        }
+        // index of bean classes which have factories:
+        assertThat(Files.readAllLines(output.resolve(BeanFactoryProcessor.FACTORY_INDEX)))
+                .containsExactly("# Generated by " + BeanFactoryProcessor.class.getName(),
+                        "com.example.AppConfig", "com.example.HelloBean", "com.example.HelloBean$NestedBean",
+                        "com.example.OverloadBean");
+        // nested class:
+        assertThat(output.resolve("com/example/HelloBean_NestedBean__BeanFactory.class")).exists();
+        // private constructor:
+        assertThat(output.resolve("com/example/PrivateBean__BeanFactory.class")).doesNotExist();
+        // not a component:
+        assertThat(output.resolve("com/example/HelloDto__BeanFactory.class")).doesNotExist();
+    }
+
+    @Test
+    public void overloadedWithPrivateMethod() throws Exception {
+        assertThat(compile(true)).isTrue();
+
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> factoryInterface = cl.loadClass("com.example.OverloadBean__BeanFactory").getInterfaces()[0];
+            Object factory = cl.loadClass("com.example.OverloadBean__BeanFactory").getConstructor().newInstance();
+            Object bean = factoryInterface.getMethod("newInstance", Object[].class).invoke(factory, (Object) new Object[0]);
+
+            // both setters are left to reflection, not dispatched to the non-private one by name:
+            var injectMethod = factoryInterface.getMethod("injectMethod", Object.class, String.class, Object.class);
+            assertThat(injectMethod.invoke(factory, bean, "setValue", 123)).isEqualTo(false);
+            assertThat(injectMethod.invoke(factory, bean, "setValue", "abc")).isEqualTo(false);
+
+            var invokeFactoryMethod = factoryInterface.getMethod("invokeFactoryMethod", Object.class, String.class, Object[].class);
+            assertThat(invokeFactoryMethod.invoke(factory, bean, "answer", new Object[]{"x"}))
+                    .isSameAs(factoryInterface.getField("NOT_GENERATED").get(null));
+        }
+    }
+
+    @Test
+    public void mergeIndexOnIncrementalCompile() throws Exception {
+        assertThat(compile(true)).isTrue();
+
+        // compile changed sources only, previous output is on classpath:
+        List<JavaFileObject> changed = List.of(
+                source("com.example.WorldBean",
+                        "package com.example; @com.tripleyuan.winter.annotation.Component public class WorldBean { }"),
+                source("com.example.AppConfig",
+                        "package com.example; public class AppConfig { }"));
+        assertThat(compile(changed, true)).isTrue();
+
+        assertThat(Files.readAllLines(output.resolve(BeanFactoryProcessor.FACTORY_INDEX)))
+                .containsExactly("# Generated by " + BeanFactoryProcessor.class.getName(),
+                        "com.example.HelloBean", "com.example.HelloBean$NestedBean", "com.example.OverloadBean",
+                        "com.example.WorldBean");
+    }
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        assertThat(compile(false)).isTrue();
+        assertThat(output.resolve("com/example/HelloBean.class")).exists();
+        assertThat(Files.exists(output.resolve("com/example/HelloBean__BeanFactory.class"))).isFalse();
+        assertThat(Files.exists(output.resolve(BeanFactoryProcessor.FACTORY_INDEX))).isFalse();
+    }
+
+    boolean compile(boolean aot) {
+        List<JavaFileObject> sources = List.of(
+                source("com.tripleyuan.winter.annotation.Component",
+                        "package com.tripleyuan.winter.annotation; public @interface Component { String value() default \"\"; }"),
+                source("com.tripleyuan.winter.annotation.Configuration",
+                        "package com.tripleyuan.winter.annotation; @Component public @interface Configuration { }"),
+                source("com.tripleyuan.winter.annotation.Autowired",
+                        "package com.tripleyuan.winter.annotation; public @interface Autowired { }"),
+                source("com.tripleyuan.winter.annotation.Value",
+                        "package com.tripleyuan.winter.annotation; public @interface Value { String value(); }"),
+                source("com.tripleyuan.winter.annotation.Bean",
+                        "package com.tripleyuan.winter.annotation; public @interface Bean { }"),
+                source("com.tripleyuan.winter.context.GeneratedBeanFactory",
+                        "package com.tripleyuan.winter.context; public interface GeneratedBeanFactory { Object NOT_GENERATED = new Object();"
+                                + " Object newInstance(Object[] args) throws Exception;"
+                                + " default Object invokeFactoryMethod(Object c, String m, Object[] args) throws Exception { return NOT_GENERATED; }"
+                                + " default boolean injectField(Object b, String f, Object v) throws Exception { return false; }"
+                                + " default boolean injectMethod(Object b, String m, Object v) throws Exception { return false; } }"),
+                source("com.example.HelloBean",
+                        "package com.example; import com.tripleyuan.winter.annotation.*; import java.util.List;"
+                                + " @Component public class HelloBean {"
+                                + " final String name; final int count; String title;"
+                                + " @Autowired List<String> list;"
+                                + " @Autowired private String secret;"
+                                + " public HelloBean(@Value(\"${name}\") String name, @Value(\"${count}\") int count) { this.name = name; this.count = count; }"
+                                + " @Value(\"${title}\") void setTitle(String title) { this.title = title; }"
+                                + " public String toString() { return name + \":\" + count + \":\" + list + \":\" + title; }"
+                                + " @Component public static class NestedBean { } }"),
+                source("com.example.AppConfig",
+                        "package com.example; import com.tripleyuan.winter.annotation.*;"
+                                + " @Configuration public class AppConfig {"
+                                + " @Bean String greeting(@Value(\"${name}\") String name) { return \"hello, \" + name; } }"),
+                source("com.example.OverloadBean",
+                        "package com.example; import com.tripleyuan.winter.annotation.*;"
+                                + " @Component public class OverloadBean {"
+                                + " @Autowired private void setValue(Integer value) { }"
+                                + " @Autowired void setValue(String value) { }"
+                                + " @Bean private String answer(Integer value) { return \"private\"; }"
+                                + " @Bean String answer(String value) { return value; } }"),
+                source("com.example.PrivateBean",
+                        "package com.example; @com.tripleyuan.winter.annotation.Component public class PrivateBean { private PrivateBean() { } }"),
+                source("com.example.HelloDto",
+                        "package com.example; public class HelloDto { }"));
+        return compile(sources, aot);
+    }
+
+    boolean compile(List<JavaFileObject> sources, boolean aot) {
+        List<String> options = new ArrayList<>(List.of("-d", output.toString(), "-s", output.toString(), "-classpath", output.toString()));
+        if (aot) {
+            options.add("-A" + BeanFactoryProcessor.OPTION_AOT + "=true");
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, sources);
+        task.setProcessors(List.of(new BeanFactoryProcessor()));
+        return task.call();
+    }
+}
@@ -0,0 +1,88 @@
+package com.tripleyuan.winter.indexer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentIndexProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    public void writeIndex() throws IOException {
+        List<JavaFileObject> sources = List.of(
+                source("com.tripleyuan.winter.annotation.Component",
+                        "package com.tripleyuan.winter.annotation; public @interface Component { String value() default \"\"; }"),
+                source("com.tripleyuan.winter.annotation.Configuration",
+                        "package com.tripleyuan.winter.annotation; @Component public @interface Configuration { }"),
+                source("com.example.HelloBean",
+                        "package com.example; @com.tripleyuan.winter.annotation.Component public class HelloBean { "
+                                + "@com.tripleyuan.winter.annotation.Component public static class NestedBean { } }"),
+                source("com.example.AppConfig",
+                        "package com.example; @com.tripleyuan.winter.annotation.Configuration public class AppConfig { }"),
+                source("com.example.HelloDto",
+                        "package com.example; public class HelloDto { }"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                List.of("-d", output.toString(), "-proc:only"), null, sources);
+        task.setProcessors(List.of(new ComponentIndexProcessor()));
+        assertThat(task.call()).isTrue();
+
+        List<String> lines = Files.readAllLines(output.resolve(ComponentIndexProcessor.COMPONENT_INDEX));
+        assertThat(lines).filteredOn(line -> !line.startsWith("#"))
+                .containsExactly("com.example.AppConfig", "com.example.HelloBean", "com.example.HelloBean$NestedBean");
+    }
+
+    @Test
+    public void mergeIndexOnIncrementalCompile() throws IOException {
+        compile(List.of(
+                source("com.tripleyuan.winter.annotation.Component",
+                        "package com.tripleyuan.winter.annotation; public @interface Component { String value() default \"\"; }"),
+                source("com.example.HelloBean",
+                        "package com.example; @com.tripleyuan.winter.annotation.Component public class HelloBean { }"),
+                source("com.example.ByeBean",
+                        "package com.example; @com.tripleyuan.winter.annotation.Component public class ByeBean { }")));
+
+        // compile changed sources only, previous output is on classpath:
+        compile(List.of(
+                source("com.example.WorldBean",
+                        "package com.example; @com.tripleyuan.winter.annotation.Component public class WorldBean { }"),
+                source("com.example.ByeBean",
+                        "package com.example; public class ByeBean { }")));
+
+        List<String> lines = Files.readAllLines(output.resolve(ComponentIndexProcessor.COMPONENT_INDEX));
+        assertThat(lines).filteredOn(line -> !line.startsWith("#"))
+                .containsExactly("com.example.HelloBean", "com.example.WorldBean");
+    }
+
+    void compile(List<JavaFileObject> sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                List.of("-d", output.toString(), "-classpath", output.toString()), null, sources);
+        task.setProcessors(List.of(new ComponentIndexProcessor()));
+        assertThat(task.call()).isTrue();
+    }
+
+    static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.tripleyuan.winter.indexer;
+
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static com.tripleyuan.winter.indexer.ComponentIndexProcessorTest.source;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Run context with bean factories generated by BeanFactoryProcessor, compiled against real winter annotations.
+ */
+public class GeneratedBeanFactoryContextTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    public void useGeneratedFactories() throws Exception {
+        compile();
+        assertThat(callers(false)).containsExactlyInAnyOrder("GreetingBean__BeanFactory", "GreetingBean__BeanFactory",
+                "AotApplication__BeanFactory", "Hello, Winter @ Z", "true");
+    }
+
+    @Test
+    public void ignoreGeneratedFactories() throws Exception {
+        compile();
+        assertThat(callers(true)).doesNotContain("GreetingBean__BeanFactory", "AotApplication__BeanFactory")
+                .contains("Hello, Winter @ Z", "true");
+    }
+
+    @Test
+    public void lookupIndexedFactoriesOnly() throws Exception {
+        compile();
+        // factory classes exist, but bean classes are not listed:
+        Files.delete(output.resolve(BeanFactoryProcessor.FACTORY_INDEX));
+        assertThat(output.resolve("com/example/aot/GreetingBean__BeanFactory.class")).exists();
+        assertThat(callers(false)).doesNotContain("GreetingBean__BeanFactory", "AotApplication__BeanFactory");
+    }
+
+    // callers of constructor, field setter, @Bean method recorded by beans, then result of beans
+    List<String> callers(boolean ignoreAot) throws Exception {
+        ClassLoader origin = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            // context finds bean classes and index by context class loader:
+            Thread.currentThread().setContextClassLoader(cl);
+            Class<?> appClass = cl.loadClass("com.example.aot.AotApplication");
+            Class<?> beanClass = cl.loadClass("com.example.aot.GreetingBean");
+            var ps = new Properties();
+            ps.put("winter.context.aot-ignore", String.valueOf(ignoreAot));
+            ps.put("winter.context.index-ignore", "true");
+            try (var ctx = new AnnotationConfigApplicationContext(appClass, new PropertyResolver(ps))) {
+                Object bean = ctx.getBean(beanClass);
+                @SuppressWarnings("unchecked")
+                List<String> callers = (List<String>) beanClass.getField("callers").get(null);
+                callers.add((String) beanClass.getMethod("greet").invoke(bean));
+                // private field is injected by reflection:
+                callers.add(String.valueOf(beanClass.getMethod("getApplication").invoke(bean) == ctx.getBean(appClass)));
+                return callers;
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(origin);
+        }
+    }
+
+    void compile() {
+        List<JavaFileObject> sources = List.of(
+                source("com.example.aot.AotApplication",
+                        "package com.example.aot; import com.tripleyuan.winter.annotation.*; import java.time.ZoneId;"
+                                + " @ComponentScan @Configuration public class AotApplication {"
+                                + " @Bean ZoneId zoneId() { GreetingBean.record(); return ZoneId.of(\"Z\"); } }"),
+                source("com.example.aot.GreetingBean",
+                        "package com.example.aot; import com.tripleyuan.winter.annotation.*; import java.time.ZoneId; import java.util.*;"
+                                + " @Component public class GreetingBean {"
+                                + " public static final List<String> callers = new ArrayList<>();"
+                                + " final String name; String greeting;"
+                                + " @Autowired ZoneId zoneId;"
+                                + " @Autowired private AotApplication application;"
+                                + " public GreetingBean(@Value(\"${app.name:Winter}\") String name) { record(); this.name = name; }"
+                                + " @Value(\"${app.greeting:Hello}\") void setGreeting(String greeting) { record(); this.greeting = greeting; }"
+                                + " public String greet() { return greeting + \", \" + name + \" @ \" + zoneId; }"
+                                + " public AotApplication getApplication() { return application; }"
+                                + " static void record() { callers.add(StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE)"
+                                + ".walk(s -> s.skip(2).findFirst()).get().getDeclaringClass().getSimpleName()); } }"));
+        List<String> options = List.of("-d", output.toString(), "-s", output.toString(),
+                "-classpath", System.getProperty("java.class.path"), "-A" + BeanFactoryProcessor.OPTION_AOT + "=true");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, sources);
+        task.setProcessors(List.of(new BeanFactoryProcessor()));
+        assertThat(task.call()).isTrue();
+    }
+}
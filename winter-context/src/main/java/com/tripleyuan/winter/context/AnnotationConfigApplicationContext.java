@@ -2,6 +2,8 @@ package com.tripleyuan.winter.context;
 
 import com.tripleyuan.winter.annotation.*;
 import com.tripleyuan.winter.exception.*;
+import com.tripleyuan.winter.io.ComponentCandidateMapper;
+import com.tripleyuan.winter.io.ComponentIndex;
 import com.tripleyuan.winter.io.PropertyResolver;
 import com.tripleyuan.winter.io.ResourceResolver;
 import jakarta.annotation.Nullable;
@@ -9,11 +11,16 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-import static com.tripleyuan.winter.io.ResourceResolver.FULL_CLASS_NAME_MAPPER;
 import static com.tripleyuan.winter.utils.ClassUtils.*;
 import static java.util.stream.Collectors.toList;
 
@@ -22,18 +29,32 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
 
     // map: beanName -> beanDefinition
     private Map<String, BeanDefinition> beans;
+    // map: type (class, superclass or interface) -> beanDefinitions assignable to it
+    private Map<Class<?>, List<BeanDefinition>> typeIndex;
+    // map: type -> the unique or @Primary beanDefinition, absent if none or ambiguous
+    private Map<Class<?>, BeanDefinition> uniqueTypeIndex;
     // Beans which are in creation
     private Set<String> creatingBeanNames;
     // propertyResolver
     private PropertyResolver propertyResolver;
     // beanPostProcessors
     private List<BeanPostProcessor> beanPostProcessors;
+    // create, inject and init normal beans on a ForkJoinPool
+    private boolean parallelRefresh;
+    // bean classes which have factories generated at compile time, null if none or ignored
+    private Set<String> generatedFactoryClasses;
 
     public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver) {
         ApplicationContextUtils.setApplicationContext(this);
         this.propertyResolver = propertyResolver;
-        this.creatingBeanNames = new HashSet<>(256);
+        this.creatingBeanNames = ConcurrentHashMap.newKeySet(256);
         this.beanPostProcessors = new ArrayList<>(64);
+        this.parallelRefresh = propertyResolver.getProperty("${winter.context.parallel-refresh:false}", boolean.class);
+        if (!propertyResolver.getProperty("${winter.context.aot-ignore:false}", boolean.class)) {
+            // only look up factories listed by index, classes without factory cost nothing
+            this.generatedFactoryClasses = ComponentIndex.loadNames(GeneratedBeanFactory.FACTORY_INDEX);
+        }
+        long start = System.nanoTime();
 
         // scan bean class
         Set<String> candidateClassNames = scanForClassNames(configClass);
@@ -41,6 +62,9 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         // create bean definition
         this.beans = createBeanDefinitions(candidateClassNames);
 
+        // index bean definitions by type
+        buildTypeIndex();
+
         // create Configuration bean
         this.beans.values().stream()
                 .filter(this::isConfigurationBean)
@@ -58,22 +82,28 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         List<BeanDefinition> normalBeans = this.beans.values().stream()
                 .filter(def -> def.getInstance() == null)
                 .collect(toList());
-        normalBeans.forEach(def -> {
-            // need check null, because it may be created during other bean's creation.
-            if (def.getInstance() == null) {
-                createBeanAsEarlySingleton(def);
-            }
-        });
+        if (this.parallelRefresh) {
+            refreshInParallel(normalBeans);
+        } else {
+            normalBeans.forEach(def -> {
+                // need check null, because it may be created during other bean's creation.
+                if (def.getInstance() == null) {
+                    createBeanAsEarlySingleton(def);
+                }
+            });
 
-        // inject
-        this.beans.values().forEach(def -> {
-            injectBean(def);
-        });
+            // inject
+            this.beans.values().forEach(def -> {
+                injectBean(def);
+            });
 
-        // init
-        this.beans.values().forEach(def -> {
-            initBean(def);
-        });
+            // init
+            this.beans.values().forEach(def -> {
+                initBean(def);
+            });
+        }
+        log.info("{} beans refreshed in {} ms (parallel: {}).", this.beans.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), this.parallelRefresh);
 
         if (log.isDebugEnabled()) {
             this.beans.values().stream().sorted().forEach(def -> {
@@ -105,37 +135,44 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     @Nullable
     @Override
     public BeanDefinition findBeanDefinition(Class<?> requiredType) {
-        List<BeanDefinition> defs = findBeanDefinitions(requiredType);
-        if (defs.isEmpty()) {
-            return null;
+        BeanDefinition def = this.uniqueTypeIndex.get(requiredType);
+        if (def != null) {
+            return def;
         }
-        if (defs.size() == 1) {
-            return defs.get(0);
-        }
-
-        // Found multiple bean, filter bean with @Primary.
-        List<BeanDefinition> primaryList = defs.stream().filter(t -> t.isPrimary()).collect(toList());
-        if (primaryList.size() == 1) {
-            return primaryList.get(0);
+        List<BeanDefinition> defs = this.typeIndex.get(requiredType);
+        if (defs == null) {
+            return null;
         }
 
-        if (primaryList.isEmpty()) {
+        // Found multiple bean, but @Primary could not resolve it when building index.
+        long primaryCount = defs.stream().filter(t -> t.isPrimary()).count();
+        if (primaryCount == 0) {
             throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, but no @Primary specified.", requiredType.getName()));
         } else {
             throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, and multiple @Primary specified.", requiredType.getName()));
         }
-
     }
 
     @Override
     public List<BeanDefinition> findBeanDefinitions(Class<?> type) {
-        return beans.values().stream()
-                .filter(bd -> type.isAssignableFrom(bd.getBeanClass()))
-                .collect(toList());
+        List<BeanDefinition> defs = this.typeIndex.get(type);
+        return defs == null ? new ArrayList<>() : new ArrayList<>(defs);
     }
 
     @Override
     public Object createBeanAsEarlySingleton(BeanDefinition def) {
+        if (this.parallelRefresh) {
+            // bean which is not declared as dependency (e.g. aop handler created by BeanPostProcessor)
+            // may be created by multiple threads.
+            synchronized (def) {
+                Object instance = def.getInstance();
+                return instance != null ? instance : doCreateBeanAsEarlySingleton(def);
+            }
+        }
+        return doCreateBeanAsEarlySingleton(def);
+    }
+
+    private Object doCreateBeanAsEarlySingleton(BeanDefinition def) {
         log.debug("Try to create bean '{}' as early singleton.", def.getName());
         if (!creatingBeanNames.add(def.getName())) {
             throw new BeanCreationException("Found cyclic dependency when creating bean '" + def.getName() + "'");
@@ -207,14 +244,20 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         Object beanInstance = null;
         if (createFn instanceof Constructor) {
             try {
-                beanInstance = def.getConstructor().newInstance(args);
+                beanInstance = def.getGeneratedFactory() != null ?
+                        def.getGeneratedFactory().newInstance(args) : def.getConstructor().newInstance(args);
             } catch (Exception e) {
                 throw new BeanDefinitionException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
             }
         } else {
             Object configInstance = getBean(def.getFactoryName());
+            GeneratedBeanFactory configFactory = findBeanDefinition(def.getFactoryName()).getGeneratedFactory();
             try {
-                beanInstance = def.getFactoryMethod().invoke(configInstance, args);
+                beanInstance = configFactory != null ?
+                        configFactory.invokeFactoryMethod(configInstance, def.getFactoryMethod().getName(), args) : GeneratedBeanFactory.NOT_GENERATED;
+                if (beanInstance == GeneratedBeanFactory.NOT_GENERATED) {
+                    beanInstance = def.getFactoryMethod().invoke(configInstance, args);
+                }
             } catch (Exception e) {
                 throw new BeanDefinitionException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
             }
@@ -304,6 +347,8 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                     callMethod(bean, def.getDestroyMethodName(), def.getDestroyMethod());
                 });
         this.beans.clear();
+        this.typeIndex.clear();
+        this.uniqueTypeIndex.clear();
         log.debug("{} closed.", this.getClass().getName());
 
         ApplicationContextUtils.setApplicationContext(null);
@@ -315,19 +360,35 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 new String[]{configClass.getPackage().getName()} : componentScan.value();
         log.debug("Component scan base packages: {}", Arrays.toString(basePackages));
 
+        // use component index generated at compile time if exists
+        boolean ignoreIndex = this.propertyResolver.getProperty("${winter.context.index-ignore:false}", boolean.class);
+        ComponentIndex index = ignoreIndex ? null : ComponentIndex.load();
+
+        // read annotations from class file, only load component classes
+        ComponentCandidateMapper mapper = index == null ? new ComponentCandidateMapper() : null;
+
         Set<String> classNames = new HashSet<>();
-        // scan package
-        for (String basePackage : basePackages) {
-            log.debug("Scan package: {}", basePackage);
-            ResourceResolver rr = new ResourceResolver(basePackage);
-            List<String> scanedList = rr.scan(FULL_CLASS_NAME_MAPPER);
+        // scan package, each jar is opened once for all base packages
+        try (ResourceResolver.JarFileSystems jars = new ResourceResolver.JarFileSystems()) {
+            for (String basePackage : basePackages) {
+                List<String> scanedList;
+                if (index != null) {
+                    log.debug("Read package from component index: {}", basePackage);
+                    scanedList = index.getCandidates(basePackage);
+                } else {
+                    log.debug("Scan package: {}", basePackage);
+                    ResourceResolver rr = new ResourceResolver(basePackage);
+                    scanedList = rr.scan(mapper, jars);
+                }
 
-            if (log.isDebugEnabled()) {
-                scanedList.forEach(className -> log.debug("class found by component scan: {}", className));
+                if (log.isDebugEnabled()) {
+                    scanedList.forEach(className -> log.debug("class found by component scan: {}", className));
+                }
+                classNames.addAll(scanedList);
             }
-            classNames.addAll(scanedList);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
         // handle @Import
         Import importConfig = findAnnotation(configClass, Import.class);
         if (importConfig != null) {
@@ -350,7 +411,8 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         for (String className : candidateClassNames) {
             Class<?> clazz = null;
             try {
-                clazz = Class.forName(className);
+                // same class loader which found the class name by scan or index
+                clazz = Class.forName(className, true, getContextClassLoader());
             } catch (ClassNotFoundException e) {
                 throw new BeanCreationException(e);
             }
@@ -379,6 +441,9 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 def.setPrimary(findAnnotation(clazz, Primary.class) != null);
                 def.setInitMethod(findAnnotationMethod(clazz, PostConstruct.class));
                 def.setDestroyMethod(findAnnotationMethod(clazz, PreDestroy.class));
+                if (this.generatedFactoryClasses != null && this.generatedFactoryClasses.contains(className)) {
+                    def.setGeneratedFactory(loadGeneratedFactory(clazz));
+                }
                 addBeanDefinition(defs, def);
 
                 // configuration class?
@@ -393,8 +458,31 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         }
         return defs;
     }
-    // get public constructor or non-public constructor as fallback.
 
+    private ClassLoader getContextClassLoader() {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        return cl == null ? getClass().getClassLoader() : cl;
+    }
+
+    @Nullable
+    private GeneratedBeanFactory loadGeneratedFactory(Class<?> clazz) {
+        String factoryClassName = GeneratedBeanFactory.getFactoryClassName(clazz);
+        Class<?> factoryClass;
+        try {
+            factoryClass = Class.forName(factoryClassName, true, clazz.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            log.warn("Generated bean factory listed in index not found: {}", factoryClassName);
+            return null;
+        }
+        try {
+            log.debug("Use generated bean factory: {}", factoryClassName);
+            return (GeneratedBeanFactory) factoryClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new BeanDefinitionException("Cannot create generated bean factory: " + factoryClassName, e);
+        }
+    }
+
+    // get public constructor or non-public constructor as fallback.
     private Constructor<?> getSutableConstructor(Class<?> clazz) {
         // public
         Constructor<?>[] cons = clazz.getDeclaredConstructors();
@@ -476,6 +564,48 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         }
     }
 
+    // index every bean definition under its class, all superclasses and all interfaces,
+    // then resolve the unique or @Primary definition of each type ahead of time.
+
+    private void buildTypeIndex() {
+        Map<Class<?>, List<BeanDefinition>> index = new HashMap<>(this.beans.size() * 4);
+        for (BeanDefinition def : this.beans.values()) {
+            Set<Class<?>> types = new HashSet<>();
+            collectTypes(def.getBeanClass(), types);
+            // interfaces returned by @Bean method are also assignable to Object
+            types.add(Object.class);
+            for (Class<?> type : types) {
+                index.computeIfAbsent(type, k -> new ArrayList<>()).add(def);
+            }
+        }
+
+        Map<Class<?>, BeanDefinition> uniqueIndex = new HashMap<>(index.size());
+        index.forEach((type, defs) -> {
+            if (defs.size() == 1) {
+                uniqueIndex.put(type, defs.get(0));
+            } else {
+                List<BeanDefinition> primaryList = defs.stream().filter(t -> t.isPrimary()).collect(toList());
+                if (primaryList.size() == 1) {
+                    uniqueIndex.put(type, primaryList.get(0));
+                }
+            }
+        });
+
+        this.typeIndex = index;
+        this.uniqueTypeIndex = uniqueIndex;
+        log.debug("Type index built: {} types for {} beans.", index.size(), this.beans.size());
+    }
+
+    private void collectTypes(Class<?> clazz, Set<Class<?>> types) {
+        if (clazz == null || !types.add(clazz)) {
+            return;
+        }
+        collectTypes(clazz.getSuperclass(), types);
+        for (Class<?> intf : clazz.getInterfaces()) {
+            collectTypes(intf, types);
+        }
+    }
+
     private boolean isConfigurationBean(BeanDefinition def) {
         return findAnnotation(def.getBeanClass(), Configuration.class) != null;
     }
@@ -484,6 +614,72 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         return BeanPostProcessor.class.isAssignableFrom(def.getBeanClass());
     }
 
+    // Create, inject and init beans in parallel. Each step is still a barrier, like sequential refresh,
+    // but inside a step a bean only waits for its own dependencies.
+    private void refreshInParallel(List<BeanDefinition> normalBeans) {
+        BeanDependencyGraph graph = new BeanDependencyGraph(this, this.beans.values());
+        List<BeanDefinition> allBeans = this.beans.values().stream().sorted().collect(toList());
+        int threads = this.propertyResolver.getProperty("${winter.context.parallel-refresh-threads:0}", int.class);
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : new ForkJoinPool();
+        LongAdder stepNanos = new LongAdder();
+        long start = System.nanoTime();
+        try {
+            runInParallel(pool, stepNanos, normalBeans.stream().sorted().collect(toList()), graph::getCreateDependencies, def -> {
+                if (def.getInstance() == null) {
+                    createBeanAsEarlySingleton(def);
+                }
+            });
+            runInParallel(pool, stepNanos, allBeans, def -> Collections.emptySet(), this::injectBean);
+            runInParallel(pool, stepNanos, allBeans, graph::getInitDependencies, this::initBean);
+        } finally {
+            pool.shutdown();
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long stepMillis = TimeUnit.NANOSECONDS.toMillis(stepNanos.sum());
+        log.info("Parallel refresh of {} beans took {} ms on {} threads, sum of bean steps is {} ms, saved {} ms.",
+                allBeans.size(), wallMillis, pool.getParallelism(), stepMillis, stepMillis - wallMillis);
+    }
+
+    // run step for each bean after the step of its dependencies in same list are done.
+    // beans are submitted by @Order, so independent beans with higher priority start first.
+    private void runInParallel(ForkJoinPool pool, LongAdder stepNanos, List<BeanDefinition> defs,
+                               Function<BeanDefinition, Set<BeanDefinition>> dependencies, Consumer<BeanDefinition> step) {
+        Map<BeanDefinition, CompletableFuture<Void>> futures = new HashMap<>(defs.size() * 2);
+        Set<BeanDefinition> scheduled = new HashSet<>(defs);
+        for (BeanDefinition def : defs) {
+            schedule(def, pool, stepNanos, scheduled, futures, dependencies, step);
+        }
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new BeanCreationException(cause);
+        }
+    }
+
+    private CompletableFuture<Void> schedule(BeanDefinition def, ForkJoinPool pool, LongAdder stepNanos, Set<BeanDefinition> scheduled,
+                                             Map<BeanDefinition, CompletableFuture<Void>> futures,
+                                             Function<BeanDefinition, Set<BeanDefinition>> dependencies, Consumer<BeanDefinition> step) {
+        CompletableFuture<Void> future = futures.get(def);
+        if (future != null) {
+            return future;
+        }
+        CompletableFuture<?>[] depends = dependencies.apply(def).stream()
+                .filter(scheduled::contains)
+                .map(dep -> schedule(dep, pool, stepNanos, scheduled, futures, dependencies, step))
+                .toArray(CompletableFuture[]::new);
+        future = CompletableFuture.allOf(depends).thenRunAsync(() -> {
+            long start = System.nanoTime();
+            step.accept(def);
+            stepNanos.add(System.nanoTime() - start);
+        }, pool);
+        futures.put(def, future);
+        return future;
+    }
+
     private void injectBean(BeanDefinition def) {
         Object beanInstance = getProxiedInstance(def);
         try {
@@ -522,7 +718,6 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (acc instanceof Field) {
             field = (Field) acc;
             checkFieldOrMethod(field);
-            field.setAccessible(true);
         }
         if (acc instanceof Method) {
             method = (Method) acc;
@@ -531,7 +726,6 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 throw new BeanDefinitionException(
                         String.format("Cannot inject a non-setter method %s for bean '%s': %s", method.getName(), def.getName(), def.getBeanClass().getName()));
             }
-            method.setAccessible(true);
         }
 
         String accessibleName = field != null ? field.getName() : method.getName();
@@ -547,11 +741,11 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             Object propValue = propertyResolver.getRequiredProperty(value.value(), accessibleType);
             if (field != null) {
                 log.debug("Filed injection by @Value: {}.{} = {}", def.getBeanClass().getName(), accessibleName, propValue);
-                field.set(bean, propValue);
+                setField(def, clazz, bean, field, propValue);
             }
             if (method != null) {
                 log.debug("Method injection by @Value: {}.{} ({})", def.getBeanClass().getName(), accessibleName, propValue);
-                method.invoke(bean, propValue);
+                invokeSetter(def, clazz, bean, method, propValue);
             }
         }
 
@@ -566,16 +760,43 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             if (depends != null) {
                 if (field != null) {
                     log.debug("Field injection by @Autowired: {}.{} = {}", def.getBeanClass().getName(), accessibleName, depends);
-                    field.set(bean, depends);
+                    setField(def, clazz, bean, field, depends);
                 }
                 if (method != null) {
                     log.debug("Method injection by @Autowired: {}.{} ({})", def.getBeanClass().getName(), accessibleName, depends);
-                    method.invoke(bean, depends);
+                    invokeSetter(def, clazz, bean, method, depends);
                 }
             }
         }
     }
 
+    // generated factory only handles members declared by bean class itself
+    private void setField(BeanDefinition def, Class<?> clazz, Object bean, Field field, Object value) throws ReflectiveOperationException {
+        GeneratedBeanFactory factory = clazz == def.getBeanClass() ? def.getGeneratedFactory() : null;
+        try {
+            if (factory != null && factory.injectField(bean, field.getName(), value)) {
+                return;
+            }
+        } catch (Exception e) {
+            throw new InvocationTargetException(e);
+        }
+        field.setAccessible(true);
+        field.set(bean, value);
+    }
+
+    private void invokeSetter(BeanDefinition def, Class<?> clazz, Object bean, Method method, Object value) throws ReflectiveOperationException {
+        GeneratedBeanFactory factory = clazz == def.getBeanClass() ? def.getGeneratedFactory() : null;
+        try {
+            if (factory != null && factory.injectMethod(bean, method.getName(), value)) {
+                return;
+            }
+        } catch (Exception e) {
+            throw new InvocationTargetException(e);
+        }
+        method.setAccessible(true);
+        method.invoke(bean, value);
+    }
+
     private void checkFieldOrMethod(Member m) {
         int mod = m.getModifiers();
         if (Modifier.isStatic(mod)) {
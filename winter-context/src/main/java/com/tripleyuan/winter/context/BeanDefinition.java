@@ -22,9 +22,9 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     @Setter
     private Class<?> beanClass;
 
-    // Bean的实例
+    // Bean的实例, 并行初始化时可能被其他线程设置
     @Getter
-    private Object instance = null;
+    private volatile Object instance = null;
 
     // 构造方法/null
     @Getter
@@ -39,6 +39,11 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     @Getter
     private Method factoryMethod;
 
+    // 编译期生成的工厂/null
+    @Getter
+    @Setter
+    private GeneratedBeanFactory generatedFactory;
+
     // Bean的顺序
     @Getter
     @Setter
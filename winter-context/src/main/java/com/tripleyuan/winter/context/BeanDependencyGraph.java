@@ -0,0 +1,151 @@
+package com.tripleyuan.winter.context;
+
+import com.tripleyuan.winter.annotation.Autowired;
+import com.tripleyuan.winter.exception.BeanCreationException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static com.tripleyuan.winter.utils.ClassUtils.getAnnotation;
+
+/**
+ * Dependency graph of bean definitions, used by parallel refresh to schedule steps.
+ * <p>
+ * Creation dependencies come from @Autowired parameters of constructor or factory method, they must be acyclic.
+ * Initialization dependencies also include @Autowired fields and setters, cycles between them are allowed
+ * (beans are created as early singletons), so back edges of such cycles are dropped.
+ */
+class BeanDependencyGraph {
+
+    private final ConfigurableApplicationContext context;
+    // bean -> beans must be created before it
+    private final Map<BeanDefinition, Set<BeanDefinition>> createDependencies = new HashMap<>();
+    // bean -> beans must be initialized before it
+    private final Map<BeanDefinition, Set<BeanDefinition>> initDependencies = new HashMap<>();
+
+    BeanDependencyGraph(ConfigurableApplicationContext context, Collection<BeanDefinition> defs) {
+        this.context = context;
+        List<BeanDefinition> sorted = new ArrayList<>(defs);
+        Collections.sort(sorted);
+        for (BeanDefinition def : sorted) {
+            Set<BeanDefinition> creates = resolveCreateDependencies(def);
+            Set<BeanDefinition> inits = new LinkedHashSet<>(creates);
+            resolvePropertyDependencies(def.getBeanClass(), inits);
+            inits.remove(def);
+            this.createDependencies.put(def, creates);
+            this.initDependencies.put(def, inits);
+        }
+        checkCyclicCreation(sorted);
+        removeBackEdges(sorted, this.initDependencies);
+    }
+
+    Set<BeanDefinition> getCreateDependencies(BeanDefinition def) {
+        return this.createDependencies.getOrDefault(def, Collections.emptySet());
+    }
+
+    Set<BeanDefinition> getInitDependencies(BeanDefinition def) {
+        return this.initDependencies.getOrDefault(def, Collections.emptySet());
+    }
+
+    private Set<BeanDefinition> resolveCreateDependencies(BeanDefinition def) {
+        Set<BeanDefinition> deps = new LinkedHashSet<>();
+        Executable createFn = def.getFactoryName() == null ? def.getConstructor() : def.getFactoryMethod();
+        if (def.getFactoryName() != null) {
+            addIfPresent(deps, this.context.findBeanDefinition(def.getFactoryName()));
+        }
+        Class<?>[] types = createFn.getParameterTypes();
+        Annotation[][] annos = createFn.getParameterAnnotations();
+        for (int i = 0; i < types.length; i++) {
+            Autowired autowired = getAnnotation(annos[i], Autowired.class);
+            if (autowired != null) {
+                addIfPresent(deps, resolveAutowired(autowired, types[i]));
+            }
+        }
+        return deps;
+    }
+
+    private void resolvePropertyDependencies(Class<?> clazz, Set<BeanDefinition> deps) {
+        for (Field field : clazz.getDeclaredFields()) {
+            Autowired autowired = field.getAnnotation(Autowired.class);
+            if (autowired != null) {
+                addIfPresent(deps, resolveAutowired(autowired, field.getType()));
+            }
+        }
+        for (Method method : clazz.getDeclaredMethods()) {
+            Autowired autowired = method.getAnnotation(Autowired.class);
+            // non-setter method is reported when injecting
+            if (autowired != null && method.getParameterCount() == 1) {
+                addIfPresent(deps, resolveAutowired(autowired, method.getParameterTypes()[0]));
+            }
+        }
+        Class<?> superclass = clazz.getSuperclass();
+        if (superclass != null) {
+            resolvePropertyDependencies(superclass, deps);
+        }
+    }
+
+    // missing bean is not an edge, it is reported when creating or injecting bean.
+    private BeanDefinition resolveAutowired(Autowired autowired, Class<?> type) {
+        return autowired.name().isEmpty() ? this.context.findBeanDefinition(type) : this.context.findBeanDefinition(autowired.name(), type);
+    }
+
+    private void addIfPresent(Set<BeanDefinition> deps, BeanDefinition def) {
+        if (def != null) {
+            deps.add(def);
+        }
+    }
+
+    private void checkCyclicCreation(List<BeanDefinition> defs) {
+        Set<BeanDefinition> visited = new HashSet<>();
+        Set<BeanDefinition> creating = new HashSet<>();
+        for (BeanDefinition def : defs) {
+            checkCyclicCreation(def, visited, creating);
+        }
+    }
+
+    private void checkCyclicCreation(BeanDefinition def, Set<BeanDefinition> visited, Set<BeanDefinition> creating) {
+        if (visited.contains(def)) {
+            return;
+        }
+        if (!creating.add(def)) {
+            throw new BeanCreationException("Found cyclic dependency when creating bean '" + def.getName() + "'");
+        }
+        for (BeanDefinition dep : getCreateDependencies(def)) {
+            checkCyclicCreation(dep, visited, creating);
+        }
+        creating.remove(def);
+        visited.add(def);
+    }
+
+    private void removeBackEdges(List<BeanDefinition> defs, Map<BeanDefinition, Set<BeanDefinition>> graph) {
+        Set<BeanDefinition> visited = new HashSet<>();
+        Set<BeanDefinition> onStack = new HashSet<>();
+        for (BeanDefinition def : defs) {
+            removeBackEdges(def, graph, visited, onStack);
+        }
+    }
+
+    private void removeBackEdges(BeanDefinition def, Map<BeanDefinition, Set<BeanDefinition>> graph,
+                                 Set<BeanDefinition> visited, Set<BeanDefinition> onStack) {
+        if (!visited.add(def)) {
+            return;
+        }
+        onStack.add(def);
+        Set<BeanDefinition> deps = graph.get(def);
+        if (deps != null) {
+            Iterator<BeanDefinition> it = deps.iterator();
+            while (it.hasNext()) {
+                BeanDefinition dep = it.next();
+                if (onStack.contains(dep)) {
+                    it.remove();
+                } else {
+                    removeBackEdges(dep, graph, visited, onStack);
+                }
+            }
+        }
+        onStack.remove(def);
+    }
+}
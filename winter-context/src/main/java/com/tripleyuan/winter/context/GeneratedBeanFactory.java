@@ -0,0 +1,53 @@
+package com.tripleyuan.winter.context;
+
+/**
+ * Bean factory generated at compile time by winter-context-indexer (with {@code -Awinter.aot=true}), which creates
+ * and injects bean by plain java code instead of reflection.
+ * <p>
+ * Generated class is in the same package of bean class, named by {@link #getFactoryClassName(Class)}, and bean classes
+ * which have generated factories are listed in {@link #FACTORY_INDEX}. Members which are not accessible from the
+ * package (e.g. private) are not generated and still handled by reflection.
+ */
+public interface GeneratedBeanFactory {
+
+    // returned by invokeFactoryMethod() if the @Bean method is not generated
+    Object NOT_GENERATED = new Object();
+
+    String FACTORY_CLASS_SUFFIX = "__BeanFactory";
+
+    String FACTORY_INDEX = "META-INF/winter.factories";
+
+    /**
+     * Create bean by the only constructor.
+     */
+    Object newInstance(Object[] args) throws Exception;
+
+    /**
+     * Invoke @Bean method on configuration bean, return NOT_GENERATED if not generated.
+     */
+    default Object invokeFactoryMethod(Object configuration, String methodName, Object[] args) throws Exception {
+        return NOT_GENERATED;
+    }
+
+    /**
+     * Inject field declared by bean class, return false if not generated.
+     */
+    default boolean injectField(Object bean, String fieldName, Object value) throws Exception {
+        return false;
+    }
+
+    /**
+     * Invoke setter declared by bean class, return false if not generated.
+     */
+    default boolean injectMethod(Object bean, String methodName, Object value) throws Exception {
+        return false;
+    }
+
+    // com.example.Outer$Nested => com.example.Outer_Nested__BeanFactory
+    static String getFactoryClassName(Class<?> beanClass) {
+        String name = beanClass.getName();
+        String packageName = beanClass.getPackageName();
+        String simpleName = packageName.isEmpty() ? name : name.substring(packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + FACTORY_CLASS_SUFFIX;
+    }
+}
@@ -0,0 +1,189 @@
+package com.tripleyuan.winter.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read access flags and class-level runtime visible annotations from class file, without loading the class.
+ * <p>
+ * See The Java Virtual Machine Specification, Chapter 4. The class File Format.
+ */
+public class ClassFileReader {
+
+    public static final int ACC_INTERFACE = 0x0200;
+    public static final int ACC_ANNOTATION = 0x2000;
+    public static final int ACC_ENUM = 0x4000;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    public static ClassFile read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file.");
+        }
+        // minor_version, major_version
+        skip(in, 4);
+
+        // constant pool, only keep utf8 and class entries
+        int count = in.readUnsignedShort();
+        String[] utf8s = new String[count];
+        int[] classes = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8s[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classes[i] = in.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skip(in, 2);
+                    break;
+                case 15: // MethodHandle
+                    skip(in, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skip(in, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skip(in, 8);
+                    // takes two entries
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag: " + tag);
+            }
+        }
+
+        int accessFlags = in.readUnsignedShort();
+        String className = utf8s[classes[in.readUnsignedShort()]].replace('/', '.');
+        // super_class
+        skip(in, 2);
+        // interfaces
+        skip(in, 2 * in.readUnsignedShort());
+        // fields and methods
+        for (int n = 0; n < 2; n++) {
+            int members = in.readUnsignedShort();
+            for (int i = 0; i < members; i++) {
+                // access_flags, name_index, descriptor_index
+                skip(in, 6);
+                skipAttributes(in);
+            }
+        }
+
+        // class attributes
+        List<String> annotations = new ArrayList<>();
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8s[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                int num = in.readUnsignedShort();
+                for (int j = 0; j < num; j++) {
+                    annotations.add(descriptorToClassName(utf8s[in.readUnsignedShort()]));
+                    skipElementValuePairs(in);
+                }
+            } else {
+                skip(in, length);
+            }
+        }
+        return new ClassFile(className, accessFlags, annotations);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            // attribute_name_index
+            skip(in, 2);
+            skip(in, in.readInt());
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream in) throws IOException {
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            // element_name_index
+            skip(in, 2);
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e': // enum: type_name_index, const_name_index
+                skip(in, 4);
+                break;
+            case '@': // nested annotation
+                skip(in, 2);
+                skipElementValuePairs(in);
+                break;
+            case '[': // array
+                int num = in.readUnsignedShort();
+                for (int i = 0; i < num; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            default: // const_value_index or class_info_index
+                skip(in, 2);
+        }
+    }
+
+    // "Lcom/example/Hello;" => "com.example.Hello"
+    private static String descriptorToClassName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private static void skip(DataInputStream in, int n) throws IOException {
+        while (n > 0) {
+            int skipped = in.skipBytes(n);
+            if (skipped <= 0) {
+                // skipBytes may skip less, read one byte to detect EOF
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    public static class ClassFile {
+
+        private String className;
+        private int accessFlags;
+        // class names of runtime visible annotations on class
+        private List<String> annotations;
+
+        public boolean isConcreteClass() {
+            return (this.accessFlags & (ACC_INTERFACE | ACC_ANNOTATION | ACC_ENUM)) == 0;
+        }
+
+        public boolean isAnnotation() {
+            return (this.accessFlags & ACC_ANNOTATION) != 0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.tripleyuan.winter.io;
+
+import com.tripleyuan.winter.annotation.Component;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Map class resource to class name only if the class is annotated with @Component, directly or by meta-annotations.
+ * <p>
+ * Annotations are read from class file bytes of the scanned resource, so non-component classes found by component scan
+ * are never loaded. Class files of meta-annotations are looked up by class loader.
+ */
+@Slf4j
+public class ComponentCandidateMapper implements Function<Resource, String> {
+
+    private static final String COMPONENT = Component.class.getName();
+
+    private final ClassLoader classLoader;
+    // annotation class name -> is @Component or meta-annotated by @Component
+    private final Map<String, Boolean> componentAnnotations = new ConcurrentHashMap<>();
+
+    public ComponentCandidateMapper() {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        this.classLoader = cl == null ? getClass().getClassLoader() : cl;
+    }
+
+    @Override
+    public String apply(Resource resource) {
+        String className = ResourceResolver.FULL_CLASS_NAME_MAPPER.apply(resource);
+        if (className == null) {
+            return null;
+        }
+        ClassFileReader.ClassFile classFile = resource.getFile() != null ?
+                readClassFile(resource.getFile()) : readClassFile(resource.getName());
+        if (classFile == null) {
+            // cannot parse, let reflection decide
+            return className;
+        }
+        if (!classFile.isConcreteClass()) {
+            return null;
+        }
+        for (String anno : classFile.getAnnotations()) {
+            if (isComponentAnnotation(anno, new Visit())) {
+                return className;
+            }
+        }
+        log.debug("skip non-component class: {}", className);
+        return null;
+    }
+
+    private boolean isComponentAnnotation(String annoClassName, Visit visit) {
+        Boolean cached = this.componentAnnotations.get(annoClassName);
+        if (cached != null) {
+            return cached;
+        }
+        // stop recursion on cyclic meta-annotations:
+        if (!visit.stack.add(annoClassName)) {
+            visit.cyclic = true;
+            return false;
+        }
+        boolean cyclic = visit.cyclic;
+        visit.cyclic = false;
+        boolean result = COMPONENT.equals(annoClassName) || isMetaAnnotatedByComponent(annoClassName, visit);
+        // false may be caused by an ancestor still on stack, so it is cached only if no cycle was hit:
+        if (result || !visit.cyclic) {
+            this.componentAnnotations.put(annoClassName, result);
+        }
+        visit.cyclic |= cyclic;
+        visit.stack.remove(annoClassName);
+        return result;
+    }
+
+    private boolean isMetaAnnotatedByComponent(String annoClassName, Visit visit) {
+        if (annoClassName.startsWith("java.lang.annotation.")) {
+            return false;
+        }
+        // meta-annotations are resolved by class loader:
+        ClassFileReader.ClassFile classFile = readClassFile(annoClassName.replace('.', '/') + ".class");
+        if (classFile == null || !classFile.isAnnotation()) {
+            return false;
+        }
+        for (String anno : classFile.getAnnotations()) {
+            if (isComponentAnnotation(anno, visit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ClassFileReader.ClassFile readClassFile(Path file) {
+        try (InputStream input = Files.newInputStream(file)) {
+            return ClassFileReader.read(input);
+        } catch (IOException e) {
+            log.warn("cannot read class file: {}", file, e);
+            return null;
+        }
+    }
+
+    private ClassFileReader.ClassFile readClassFile(String resourceName) {
+        try (InputStream input = this.classLoader.getResourceAsStream(resourceName)) {
+            if (input == null) {
+                log.debug("class file not found: {}", resourceName);
+                return null;
+            }
+            return ClassFileReader.read(input);
+        } catch (IOException e) {
+            log.warn("cannot read class file: {}", resourceName, e);
+            return null;
+        }
+    }
+
+    // annotations on current path of meta-annotation walk
+    private static class Visit {
+        final Set<String> stack = new HashSet<>();
+        boolean cyclic;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tripleyuan.winter.io;
+
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Component class names generated at compile time by winter-context-indexer, in {@code META-INF/winter.components}.
+ * <p>
+ * NOTE: once any index is found on classpath, component scan trusts the index only, so every module which contains
+ * components must be compiled with the indexer. Set {@code winter.context.index-ignore=true} to scan classpath instead.
+ */
+@Slf4j
+public class ComponentIndex {
+
+    public static final String COMPONENT_INDEX = "META-INF/winter.components";
+
+    private final Set<String> classNames;
+
+    ComponentIndex(Set<String> classNames) {
+        this.classNames = classNames;
+    }
+
+    /**
+     * Load and merge all index files on classpath, return null if no index found.
+     */
+    @Nullable
+    public static ComponentIndex load() {
+        Set<String> classNames = loadNames(COMPONENT_INDEX);
+        return classNames == null ? null : new ComponentIndex(classNames);
+    }
+
+    /**
+     * Load and merge class names of all index files with given name on classpath, return null if no index found.
+     */
+    @Nullable
+    public static Set<String> loadNames(String indexName) {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        if (cl == null) {
+            cl = ComponentIndex.class.getClassLoader();
+        }
+        try {
+            Enumeration<URL> urls = cl.getResources(indexName);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            Set<String> classNames = new LinkedHashSet<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                log.debug("load index: {}", url);
+                readIndex(url, classNames);
+            }
+            return classNames;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get component class names under base package, include sub packages.
+     */
+    public List<String> getCandidates(String basePackage) {
+        String prefix = basePackage + ".";
+        return this.classNames.stream()
+                .filter(name -> name.startsWith(prefix))
+                .collect(toList());
+    }
+
+    private static void readIndex(URL url, Set<String> classNames) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    classNames.add(line);
+                }
+            }
+        }
+    }
+}
@@ -12,8 +12,8 @@ import java.util.function.Function;
 @Slf4j
 public class PropertyResolver {
 
-    private static final Map<String, String> properties = new HashMap<>();
-    private static final Map<Class<?>, Function<String, Object>> converters = new HashMap<>();
+    private final Map<String, String> properties = new HashMap<>();
+    private final Map<Class<?>, Function<String, Object>> converters = new HashMap<>();
 
     public PropertyResolver(Properties props) {
         this.properties.putAll(System.getenv());
@@ -59,6 +59,27 @@ public class PropertyResolver {
         converters.put(ZonedDateTime.class, s -> ZonedDateTime.parse(s));
         converters.put(Duration.class, s -> Duration.parse(s));
         converters.put(ZoneId.class, s -> ZoneId.of(s));
+        converters.put(UUID.class, s -> UUID.fromString(s));
+    }
+
+    /**
+     * Register converter of custom type, which is also used by web argument binding.
+     */
+    public <T> void registerConverter(Class<T> clazz, Function<String, ? extends T> converter) {
+        this.converters.put(clazz, converter::apply);
+    }
+
+    /**
+     * Get converter of type, enum is converted by name. Return null if type is not supported.
+     */
+    @Nullable
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Function<String, T> getConverter(Class<T> clazz) {
+        Function<String, Object> fn = this.converters.get(clazz);
+        if (fn == null && clazz.isEnum()) {
+            fn = s -> Enum.valueOf((Class) clazz, s);
+        }
+        return (Function<String, T>) fn;
     }
 
     public boolean containsProperty(String key) {
@@ -114,13 +135,12 @@ public class PropertyResolver {
         return Objects.requireNonNull(value, "Property '" + key + "' not found.");
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> T convert(Class<?> clazz, String value) {
-        Function<String, Object> fn = this.converters.get(clazz);
+    private <T> T convert(Class<T> clazz, String value) {
+        Function<String, T> fn = getConverter(clazz);
         if (fn == null) {
             throw new IllegalArgumentException("Unsupported value type: " + clazz.getName());
         }
-        return (T) fn.apply(value);
+        return fn.apply(value);
     }
 
     private String parseValue(String value) {
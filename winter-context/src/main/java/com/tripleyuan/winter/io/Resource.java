@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.nio.file.Path;
+
 @Getter
 @AllArgsConstructor
 @ToString
@@ -11,5 +13,12 @@ public class Resource {
 
     private String path;
     private String name;
+    // file found by scan, may be in a jar file system which is only open during scan. null if unknown.
+    @ToString.Exclude
+    private Path file;
+
+    public Resource(String path, String name) {
+        this(path, name, null);
+    }
 
 }
@@ -3,6 +3,7 @@ package com.tripleyuan.winter.io;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
@@ -10,15 +11,13 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
 
 @Slf4j
 @AllArgsConstructor
@@ -36,12 +35,30 @@ public class ResourceResolver {
 
     private String basePackage;
 
+    /**
+     * Scan all classpath roots of base package in parallel, so mapper must be thread-safe.
+     * Result keeps the order of classpath roots.
+     */
     public <R> List<R> scan(Function<Resource, R> mapper) {
+        try (JarFileSystems jars = new JarFileSystems()) {
+            return scan(mapper, jars);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Scan with jar file systems opened by caller, which can be shared by scans of several base packages.
+     */
+    public <R> List<R> scan(Function<Resource, R> mapper, JarFileSystems jars) {
         String basePackagePath = this.basePackage.replace(".", "/");
-        String path = basePackagePath;
+        long start = System.currentTimeMillis();
         try {
-            List<R> collector = new ArrayList<>();
-            scan0(basePackagePath, path, collector, mapper);
+            List<URI> roots = findRoots(basePackagePath);
+            List<R> collector = roots.parallelStream()
+                    .flatMap(uri -> scan0(basePackagePath, uri, jars).map(mapper).filter(Objects::nonNull))
+                    .collect(toList());
+            log.debug("scan package {} in {} roots took {} ms.", this.basePackage, roots.size(), System.currentTimeMillis() - start);
             return collector;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -50,22 +67,30 @@ public class ResourceResolver {
         }
     }
 
-    private <R> void scan0(String basePackagePath, String path, List<R> collector, Function<Resource, R> mapper) throws IOException, URISyntaxException {
+    private List<URI> findRoots(String path) throws IOException, URISyntaxException {
         log.debug("scan path: {}", path);
+        List<URI> roots = new ArrayList<>();
         Enumeration<URL> en = getContextClassLoader().getResources(path);
         while (en.hasMoreElements()) {
-            URL url = en.nextElement();
-            URI uri = url.toURI();
+            roots.add(en.nextElement().toURI());
+        }
+        return roots;
+    }
+
+    private Stream<Resource> scan0(String basePackagePath, URI uri, JarFileSystems jars) {
+        try {
             String uriStr = removeTrailingSlash(uriToString(uri));
             String uriBaseStr = uriStr.substring(0, uriStr.length() - basePackagePath.length());
             if (uriBaseStr.startsWith("file:")) {
                 uriBaseStr = uriBaseStr.substring(5);
             }
             if (uriStr.startsWith("jar:")) {
-                scanFile(true, uriBaseStr, jarUriToPath(basePackagePath, uri), collector, mapper);
+                return scanFile(true, uriBaseStr, jars.getPath(uri, basePackagePath));
             } else {
-                scanFile(false, uriBaseStr, Paths.get(uri), collector, mapper);
+                return scanFile(false, uriBaseStr, Paths.get(uri));
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -78,26 +103,19 @@ public class ResourceResolver {
         return cl;
     }
 
-    private Path jarUriToPath(String basePackagePath, URI jarUri) throws IOException {
-        return FileSystems.newFileSystem(jarUri, new HashMap<>()).getPath(basePackagePath);
-    }
-
-    private <R> void scanFile(boolean isJar, String base, Path root, List<R> collector, Function<Resource, R> mapper) throws IOException {
+    private Stream<Resource> scanFile(boolean isJar, String base, Path root) throws IOException {
         String baseDir = removeTrailingSlash(base);
-        Files.walk(root).filter(Files::isRegularFile).forEach(file -> {
+        return Files.walk(root).filter(Files::isRegularFile).map(file -> {
             Resource res = null;
             if (isJar) {
-                res = new Resource(baseDir, removeLeadingSlash(file.toString()));
+                res = new Resource(baseDir, removeLeadingSlash(file.toString()), file);
             } else {
                 String path = file.toString();
                 String name = removeLeadingSlash(path.substring(baseDir.length()));
-                res = new Resource("file:" + path, name);
+                res = new Resource("file:" + path, name, file);
             }
             log.debug("found resource: {}", res);
-            R r = mapper.apply(res);
-            if (r != null) {
-                collector.add(r);
-            }
+            return res;
         });
     }
 
@@ -119,4 +137,46 @@ public class ResourceResolver {
         return s;
     }
 
+    /**
+     * Jar file systems opened during scan, one per jar, shared by all scans using this instance and closed by close().
+     */
+    public static class JarFileSystems implements Closeable {
+
+        // jar uri -> file system
+        private final Map<String, FileSystem> fileSystems = new ConcurrentHashMap<>();
+        // jar uri of file systems opened by others, do not close them
+        private final Set<String> shared = ConcurrentHashMap.newKeySet();
+
+        Path getPath(URI uri, String basePackagePath) {
+            // jar:file:/path/to/x.jar!/com/example => jar:file:/path/to/x.jar
+            String uriStr = uri.toString();
+            int n = uriStr.indexOf("!/");
+            String jarUri = n < 0 ? uriStr : uriStr.substring(0, n);
+            FileSystem fs = this.fileSystems.computeIfAbsent(jarUri, this::open);
+            return fs.getPath(basePackagePath);
+        }
+
+        private FileSystem open(String jarUri) {
+            URI uri = URI.create(jarUri);
+            try {
+                return FileSystems.newFileSystem(uri, new HashMap<>());
+            } catch (FileSystemAlreadyExistsException e) {
+                this.shared.add(jarUri);
+                return FileSystems.getFileSystem(uri);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            log.debug("close {} jar file systems.", this.fileSystems.size() - this.shared.size());
+            for (Map.Entry<String, FileSystem> entry : this.fileSystems.entrySet()) {
+                if (!this.shared.contains(entry.getKey())) {
+                    entry.getValue().close();
+                }
+            }
+            this.fileSystems.clear();
+        }
+    }
 }
@@ -0,0 +1,7 @@
+package com.tripleyuan.winter.candidate;
+
+import com.tripleyuan.winter.annotation.ComponentScan;
+
+@ComponentScan
+public class CandidateApplication {
+}
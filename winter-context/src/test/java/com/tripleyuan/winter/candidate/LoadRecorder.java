@@ -0,0 +1,10 @@
+package com.tripleyuan.winter.candidate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class LoadRecorder {
+
+    public static final List<String> loadedClasses = new CopyOnWriteArrayList<>();
+
+}
@@ -0,0 +1,11 @@
+package com.tripleyuan.winter.candidate;
+
+// not a component, should never be loaded by component scan
+public class PlainDto {
+
+    static {
+        LoadRecorder.loadedClasses.add(PlainDto.class.getSimpleName());
+    }
+
+    public String name;
+}
@@ -0,0 +1,11 @@
+package com.tripleyuan.winter.candidate;
+
+import com.tripleyuan.winter.annotation.Component;
+
+@Component
+public class ServiceBean {
+
+    static {
+        LoadRecorder.loadedClasses.add(ServiceBean.class.getSimpleName());
+    }
+}
@@ -86,6 +86,23 @@ public class DemoApplicationTest {
         }
     }
 
+    @Test
+    public void findBeanDefinitions_typeIndex() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(DemoApplication.class, createPropertyResolver())) {
+            // interface, implementation and Object are all indexed:
+            assertThat(context.findBeanDefinitions(Bird.class)).hasSize(2);
+            assertThat(context.findBeanDefinitions(Eagle.class)).hasSize(1);
+            assertThat(context.findBeanDefinitions(Object.class)).isNotEmpty();
+            assertThat(context.findBeanDefinitions(Runnable.class)).isEmpty();
+            assertThat(context.findBeanDefinition(Runnable.class)).isNull();
+            // @Primary resolved ahead of time:
+            assertThat(context.findBeanDefinition(Bird.class).getBeanClass()).isEqualTo(Magpie.class);
+            // Magpie is the only @Primary bean of all:
+            assertThat(context.findBeanDefinition(Object.class).getBeanClass()).isEqualTo(Magpie.class);
+        }
+    }
+
     PropertyResolver createPropertyResolver() {
         Properties ps = new Properties();
         return new PropertyResolver(ps);
@@ -0,0 +1,17 @@
+package com.tripleyuan.winter.context;
+
+import com.tripleyuan.winter.scan.nested.OuterBean;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// context with factories generated by processor is tested in winter-context-indexer
+public class GeneratedBeanFactoryTest {
+
+    @Test
+    public void factoryClassName() {
+        assertThat(GeneratedBeanFactory.getFactoryClassName(OuterBean.class)).isEqualTo("com.tripleyuan.winter.scan.nested.OuterBean__BeanFactory");
+        assertThat(GeneratedBeanFactory.getFactoryClassName(OuterBean.NestedBean.class))
+                .isEqualTo("com.tripleyuan.winter.scan.nested.OuterBean_NestedBean__BeanFactory");
+    }
+}
@@ -0,0 +1,70 @@
+package com.tripleyuan.winter.context;
+
+import com.tripleyuan.winter.demo.DemoApplication;
+import com.tripleyuan.winter.demo.bean.A;
+import com.tripleyuan.winter.demo.bean.CyclicBean1;
+import com.tripleyuan.winter.demo.bean.CyclicBean2;
+import com.tripleyuan.winter.exception.BeanCreationException;
+import com.tripleyuan.winter.io.PropertyResolver;
+import com.tripleyuan.winter.parallel.cache.*;
+import com.tripleyuan.winter.parallel.cyclic.CyclicConstructorApplication;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelRefreshTest {
+
+    @Test
+    public void testInitInParallel() {
+        try (var ctx = new AnnotationConfigApplicationContext(ParallelApplication.class, createPropertyResolver(true))) {
+            List<SlowCacheBean> caches = List.of(ctx.getBean(UserCacheBean.class), ctx.getBean(OrderCacheBean.class),
+                    ctx.getBean(ProductCacheBean.class));
+            // all warm up are overlapped:
+            long lastStart = caches.stream().mapToLong(c -> c.warmUpStart).max().getAsLong();
+            long firstEnd = caches.stream().mapToLong(c -> c.warmUpEnd).min().getAsLong();
+            assertThat(lastStart).isLessThan(firstEnd);
+
+            // dependent is initialized after its dependencies:
+            InitRecorder recorder = ctx.getBean(InitRecorder.class);
+            assertThat(recorder.events).hasSize(4);
+            assertThat(recorder.events.indexOf("ReportBean"))
+                    .isGreaterThan(recorder.events.indexOf("UserCacheBean"))
+                    .isGreaterThan(recorder.events.indexOf("OrderCacheBean"));
+        }
+    }
+
+    @Test
+    public void testDependenciesInParallel() {
+        try (var ctx = new AnnotationConfigApplicationContext(DemoApplication.class, createPropertyResolver(true))) {
+            A a = ctx.getBean(A.class);
+            assertThat(a.getB()).isNotNull();
+            assertThat(a.getB().getC()).isNotNull();
+            // cyclic dependency by setter is allowed:
+            CyclicBean1 b1 = ctx.getBean(CyclicBean1.class);
+            CyclicBean2 b2 = ctx.getBean(CyclicBean2.class);
+            assertThat(b1.getCyclicBean2()).isSameAs(b2);
+            assertThat(b2.getCyclicBean1()).isSameAs(b1);
+        }
+    }
+
+    @Test
+    public void testCyclicConstructor() {
+        assertThatThrownBy(() -> new AnnotationConfigApplicationContext(CyclicConstructorApplication.class, createPropertyResolver(false)))
+                .isInstanceOf(BeanCreationException.class)
+                .hasMessageStartingWith("Found cyclic dependency when creating bean");
+        assertThatThrownBy(() -> new AnnotationConfigApplicationContext(CyclicConstructorApplication.class, createPropertyResolver(true)))
+                .isInstanceOf(BeanCreationException.class)
+                .hasMessageStartingWith("Found cyclic dependency when creating bean");
+    }
+
+    PropertyResolver createPropertyResolver(boolean parallel) {
+        var ps = new Properties();
+        ps.put("winter.context.parallel-refresh", String.valueOf(parallel));
+        ps.put("winter.context.parallel-refresh-threads", "4");
+        return new PropertyResolver(ps);
+    }
+}
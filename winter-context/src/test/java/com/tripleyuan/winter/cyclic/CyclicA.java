@@ -0,0 +1,13 @@
+package com.tripleyuan.winter.cyclic;
+
+import com.tripleyuan.winter.annotation.Component;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CyclicB
+@Component
+public @interface CyclicA {
+
+}
@@ -0,0 +1,10 @@
+package com.tripleyuan.winter.cyclic;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CyclicA
+public @interface CyclicB {
+
+}
@@ -0,0 +1,6 @@
+package com.tripleyuan.winter.cyclic;
+
+@CyclicB
+public class CyclicBBean {
+
+}
@@ -0,0 +1,89 @@
+package com.tripleyuan.winter.io;
+
+import com.tripleyuan.winter.candidate.CandidateApplication;
+import com.tripleyuan.winter.candidate.LoadRecorder;
+import com.tripleyuan.winter.candidate.ServiceBean;
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.cyclic.CyclicABean;
+import com.tripleyuan.winter.cyclic.CyclicBBean;
+import com.tripleyuan.winter.scan.custom.annotation.CustomAnnotationBean;
+import com.tripleyuan.winter.scan.nested.OuterBean;
+import com.tripleyuan.winter.scan.primary.DogBean;
+import com.tripleyuan.winter.scan.primary.PersonBean;
+import com.tripleyuan.winter.scan.primary.PrimaryConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentCandidateMapperTest {
+
+    @Test
+    public void readClassFile() throws IOException {
+        try (InputStream input = getClass().getResourceAsStream("/com/tripleyuan/winter/scan/primary/PrimaryConfiguration.class")) {
+            ClassFileReader.ClassFile classFile = ClassFileReader.read(input);
+            assertThat(classFile.getClassName()).isEqualTo(PrimaryConfiguration.class.getName());
+            assertThat(classFile.isConcreteClass()).isTrue();
+            assertThat(classFile.getAnnotations()).containsExactly("com.tripleyuan.winter.annotation.Configuration");
+        }
+        try (InputStream input = getClass().getResourceAsStream("/com/tripleyuan/winter/annotation/Component.class")) {
+            ClassFileReader.ClassFile classFile = ClassFileReader.read(input);
+            assertThat(classFile.isAnnotation()).isTrue();
+            assertThat(classFile.isConcreteClass()).isFalse();
+            assertThat(classFile.getAnnotations()).contains("java.lang.annotation.Retention", "java.lang.annotation.Target");
+        }
+    }
+
+    @Test
+    public void scanCandidates() {
+        List<String> classNames = new ResourceResolver("com.tripleyuan.winter.scan").scan(new ComponentCandidateMapper());
+        // directly, by @Configuration and by custom meta-annotation:
+        assertThat(classNames).contains(PrimaryConfiguration.class.getName(), CustomAnnotationBean.class.getName(),
+                OuterBean.NestedBean.class.getName());
+        // not annotated:
+        assertThat(classNames).doesNotContain(PersonBean.class.getName(), DogBean.class.getName(),
+                "com.tripleyuan.winter.scan.custom.annotation.CustomAnnotation");
+    }
+
+    @Test
+    public void cyclicMetaAnnotations() {
+        List<Resource> resources = new ResourceResolver("com.tripleyuan.winter.cyclic").scan(r -> r);
+        // @CyclicA first, so that @CyclicB is evaluated while @CyclicA is still on stack:
+        List<String> classNames = resources.stream()
+                .sorted(Comparator.comparing(Resource::getName))
+                .map(new ComponentCandidateMapper())
+                .filter(name -> name != null)
+                .toList();
+        assertThat(classNames).containsExactly(CyclicABean.class.getName(), CyclicBBean.class.getName());
+    }
+
+    @Test
+    public void readScannedResource(@TempDir Path dir) throws IOException {
+        // same class name as a component on classpath, but not annotated:
+        Path file = dir.resolve("CyclicABean.class");
+        try (InputStream input = getClass().getResourceAsStream("/com/tripleyuan/winter/scan/primary/PersonBean.class")) {
+            Files.copy(input, file);
+        }
+        String name = "com/tripleyuan/winter/cyclic/CyclicABean.class";
+        assertThat(new ComponentCandidateMapper().apply(new Resource("file:" + file, name, file))).isNull();
+        assertThat(new ComponentCandidateMapper().apply(new Resource("file:" + file, name))).isEqualTo(CyclicABean.class.getName());
+    }
+
+    @Test
+    public void nonComponentNotLoaded() {
+        var ps = new Properties();
+        ps.put("winter.context.index-ignore", "true");
+        try (var ctx = new AnnotationConfigApplicationContext(CandidateApplication.class, new PropertyResolver(ps))) {
+            assertThat(ctx.getBean(ServiceBean.class)).isNotNull();
+            assertThat(LoadRecorder.loadedClasses).contains("ServiceBean").doesNotContain("PlainDto");
+        }
+    }
+}
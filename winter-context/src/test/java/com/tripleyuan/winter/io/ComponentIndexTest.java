@@ -0,0 +1,72 @@
+package com.tripleyuan.winter.io;
+
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.demo.DemoApplication;
+import com.tripleyuan.winter.demo.bean.Bird;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentIndexTest {
+
+    @TempDir
+    Path indexDir;
+
+    ClassLoader originClassLoader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path index = indexDir.resolve(ComponentIndex.COMPONENT_INDEX);
+        Files.createDirectories(index.getParent());
+        Files.write(index, List.of(
+                "# test index",
+                "com.tripleyuan.winter.demo.bean.Eagle",
+                "com.tripleyuan.winter.demo.bean.Magpie",
+                "com.tripleyuan.winter.scan.sub1.Sub1Bean"));
+        originClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{indexDir.toUri().toURL()}, originClassLoader));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Thread.currentThread().setContextClassLoader(originClassLoader);
+    }
+
+    @Test
+    public void getCandidates() {
+        ComponentIndex index = ComponentIndex.load();
+        assertThat(index).isNotNull();
+        assertThat(index.getCandidates("com.tripleyuan.winter.demo"))
+                .containsExactly("com.tripleyuan.winter.demo.bean.Eagle", "com.tripleyuan.winter.demo.bean.Magpie");
+        assertThat(index.getCandidates("com.tripleyuan.winter.scan.sub1")).containsExactly("com.tripleyuan.winter.scan.sub1.Sub1Bean");
+        assertThat(index.getCandidates("com.tripleyuan.winter.scan.sub")).isEmpty();
+    }
+
+    @Test
+    public void scanByIndex() {
+        try (var ctx = new AnnotationConfigApplicationContext(DemoApplication.class, createPropertyResolver(false))) {
+            assertThat(ctx.getBeans(Bird.class)).hasSize(2);
+            assertThat(ctx.existsBean("dogBean")).isFalse();
+        }
+        try (var ctx = new AnnotationConfigApplicationContext(DemoApplication.class, createPropertyResolver(true))) {
+            assertThat(ctx.existsBean("dogBean")).isTrue();
+        }
+    }
+
+    PropertyResolver createPropertyResolver(boolean ignoreIndex) {
+        var ps = new Properties();
+        ps.put("winter.context.index-ignore", String.valueOf(ignoreIndex));
+        return new PropertyResolver(ps);
+    }
+}
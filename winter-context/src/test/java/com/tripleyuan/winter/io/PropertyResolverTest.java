@@ -8,7 +8,10 @@ import org.junit.jupiter.api.condition.OS;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,6 +64,26 @@ public class PropertyResolverTest {
         });
     }
 
+    @Test
+    public void converters() {
+        Properties props = new Properties();
+        props.setProperty("app.id", "5f0c8e2a-3b1d-4c6e-9a7f-2d4b6c8e0a1b");
+        props.setProperty("app.time-unit", "SECONDS");
+        props.setProperty("app.locale", "zh-CN");
+
+        PropertyResolver pr = new PropertyResolver(props);
+        assertEquals(UUID.fromString("5f0c8e2a-3b1d-4c6e-9a7f-2d4b6c8e0a1b"), pr.getProperty("app.id", UUID.class));
+        assertEquals(TimeUnit.SECONDS, pr.getProperty("app.time-unit", TimeUnit.class));
+        assertNull(pr.getConverter(Locale.class));
+        assertThrows(IllegalArgumentException.class, () -> {
+            pr.getProperty("app.locale", Locale.class);
+        });
+
+        pr.registerConverter(Locale.class, Locale::forLanguageTag);
+        assertEquals(Locale.SIMPLIFIED_CHINESE, pr.getProperty("app.locale", Locale.class));
+        assertEquals(Locale.US, pr.getConverter(Locale.class).apply("en-US"));
+    }
+
     @Test
     @DisabledOnOs(OS.WINDOWS)
     public void propertyHolder() {
@@ -5,11 +5,24 @@ import jakarta.annotation.PreDestroy;
 import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.sql.DataSourceDefinition;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static com.tripleyuan.winter.io.ResourceResolver.FULL_CLASS_NAME_MAPPER;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class ResourceResolverTest {
 
@@ -35,4 +48,55 @@ public class ResourceResolverTest {
         assertThat(classes.contains(PermitAll.class.getName())).isTrue();
         assertThat(classes.contains(DataSourceDefinition.class.getName())).isTrue();
     }
+
+    @Test
+    public void scan_multiple_jars(@TempDir Path dir) throws Exception {
+        int jarCount = 5;
+        URL[] urls = new URL[jarCount];
+        for (int i = 0; i < jarCount; i++) {
+            Path jar = dir.resolve("lib" + i + ".jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+                for (String d : List.of("com/", "com/example/")) {
+                    out.putNextEntry(new JarEntry(d));
+                    out.closeEntry();
+                }
+                for (String pkg : List.of("com/example/a/", "com/example/b/")) {
+                    // directory entry is required by ClassLoader.getResources():
+                    out.putNextEntry(new JarEntry(pkg));
+                    out.closeEntry();
+                    out.putNextEntry(new JarEntry(pkg + "Bean" + i + ".class"));
+                    out.closeEntry();
+                }
+            }
+            urls[i] = jar.toUri().toURL();
+        }
+        ClassLoader origin = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(urls, null));
+        try {
+            // packages in same jars are scanned one by one:
+            List<String> classes = new ArrayList<>(new ResourceResolver("com.example.a").scan(FULL_CLASS_NAME_MAPPER));
+            classes.addAll(new ResourceResolver("com.example.b").scan(FULL_CLASS_NAME_MAPPER));
+            assertThat(classes).hasSize(2 * jarCount);
+            // keep order of classpath:
+            assertThat(classes.get(0)).isEqualTo("com.example.a.Bean0");
+            assertThat(classes.get(jarCount)).isEqualTo("com.example.b.Bean0");
+
+            // jar file systems shared by packages:
+            URI jarUri = URI.create("jar:" + urls[0].toURI());
+            try (var jars = new ResourceResolver.JarFileSystems()) {
+                List<String> shared = new ArrayList<>(new ResourceResolver("com.example.a").scan(FULL_CLASS_NAME_MAPPER, jars));
+                FileSystem fs = FileSystems.getFileSystem(jarUri);
+                shared.addAll(new ResourceResolver("com.example.b").scan(FULL_CLASS_NAME_MAPPER, jars));
+                assertThat(shared).isEqualTo(classes);
+                // not reopened by second scan:
+                assertThat(FileSystems.getFileSystem(jarUri)).isSameAs(fs);
+                assertThat(fs.isOpen()).isTrue();
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(origin);
+        }
+        // jar file systems are closed after scan:
+        URI jarUri = URI.create("jar:" + urls[0].toURI());
+        assertThatThrownBy(() -> FileSystems.getFileSystem(jarUri)).isInstanceOf(FileSystemNotFoundException.class);
+    }
 }
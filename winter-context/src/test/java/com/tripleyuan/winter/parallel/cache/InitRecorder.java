@@ -0,0 +1,17 @@
+package com.tripleyuan.winter.parallel.cache;
+
+import com.tripleyuan.winter.annotation.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Component
+public class InitRecorder {
+
+    public final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    public void record(String event) {
+        events.add(event);
+    }
+}
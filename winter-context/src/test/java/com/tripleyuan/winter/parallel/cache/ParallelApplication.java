@@ -0,0 +1,8 @@
+package com.tripleyuan.winter.parallel.cache;
+
+import com.tripleyuan.winter.annotation.ComponentScan;
+
+@ComponentScan
+public class ParallelApplication {
+
+}
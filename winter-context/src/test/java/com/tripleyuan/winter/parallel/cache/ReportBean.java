@@ -0,0 +1,30 @@
+package com.tripleyuan.winter.parallel.cache;
+
+import com.tripleyuan.winter.annotation.Autowired;
+import com.tripleyuan.winter.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class ReportBean {
+
+    final UserCacheBean userCache;
+
+    @Autowired
+    OrderCacheBean orderCache;
+
+    @Autowired
+    InitRecorder recorder;
+
+    public ReportBean(@Autowired UserCacheBean userCache) {
+        this.userCache = userCache;
+    }
+
+    @PostConstruct
+    void init() {
+        // dependencies must be warmed up before:
+        if (userCache.warmUpEnd == 0 || orderCache.warmUpEnd == 0) {
+            throw new IllegalStateException("Dependencies are not initialized.");
+        }
+        recorder.record(getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,22 @@
+package com.tripleyuan.winter.parallel.cache;
+
+import com.tripleyuan.winter.annotation.Autowired;
+
+public abstract class SlowCacheBean {
+
+    public static final long WARM_UP_MILLIS = 300;
+
+    @Autowired
+    InitRecorder recorder;
+
+    public volatile long warmUpStart;
+    public volatile long warmUpEnd;
+
+    // @PostConstruct is not searched in super class, subclass must call it.
+    void warmUp() throws InterruptedException {
+        this.warmUpStart = System.nanoTime();
+        Thread.sleep(WARM_UP_MILLIS);
+        this.warmUpEnd = System.nanoTime();
+        recorder.record(getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,13 @@
+package com.tripleyuan.winter.parallel.cache;
+
+import com.tripleyuan.winter.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class UserCacheBean extends SlowCacheBean {
+
+    @PostConstruct
+    void init() throws InterruptedException {
+        warmUp();
+    }
+}
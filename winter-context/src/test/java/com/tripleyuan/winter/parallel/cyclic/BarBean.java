@@ -0,0 +1,11 @@
+package com.tripleyuan.winter.parallel.cyclic;
+
+import com.tripleyuan.winter.annotation.Autowired;
+import com.tripleyuan.winter.annotation.Component;
+
+@Component
+public class BarBean {
+
+    public BarBean(@Autowired FooBean foo) {
+    }
+}
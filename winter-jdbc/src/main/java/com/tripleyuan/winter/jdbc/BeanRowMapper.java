@@ -3,72 +3,379 @@ package com.tripleyuan.winter.jdbc;
 import com.tripleyuan.winter.exception.DataAccessException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Map row to bean by public setters and public fields, matched by column label.
+ * <p>
+ * Use {@link #of(Class)} to share mapper of class: reflection is done once, constructor and setters are invoked by
+ * accessors generated by LambdaMetafactory. Columns are bound to setters once per column layout, and read by index with
+ * getter of property type, e.g. getLong() for long, without boxing.
+ */
 @Slf4j
 public class BeanRowMapper<T> implements RowMapper<T> {
 
-    Class<T> clazz;
-    Constructor<T> constructor;
-    Map<String, Field> fields = new HashMap<>();
-    Map<String, Method> methods = new HashMap<>();
+    private static final Map<Class<?>, BeanRowMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // column layouts cached per class, more are resolved without caching
+    static final int MAX_CACHED_LAYOUTS = 256;
+
+    final Class<T> clazz;
+    final Supplier<Object> constructor;
+    // property name -> setter, setter method takes precedence over field
+    final Map<String, Property> properties = new HashMap<>();
+    // column labels -> binders of mapped columns
+    final Map<String, ColumnBinder[]> layouts = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static <T> BeanRowMapper<T> of(Class<T> clazz) {
+        return (BeanRowMapper<T>) MAPPERS.computeIfAbsent(clazz, c -> new BeanRowMapper<>(c));
+    }
 
     public BeanRowMapper(Class<T> clazz) {
         this.clazz = clazz;
         try {
-            this.constructor = clazz.getConstructor();
+            this.constructor = createConstructor(clazz.getConstructor());
         } catch (ReflectiveOperationException ex) {
             throw new DataAccessException(String.format("No public default constructor found for class %s when build BeanRowMapper.",
                     clazz.getName()), ex);
         }
-        for (Field f : clazz.getFields()) {
-            String name = f.getName();
-            this.fields.put(name, f);
-            log.atDebug().log("Add row mapping: {} to field {}", name, name);
-        }
-        for (Method m : clazz.getMethods()) {
-            Parameter[] ps = m.getParameters();
-            if (ps.length == 1) {
-                String name = m.getName();
-                if (name.length() >= 4 && name.startsWith("set")) {
-                    String prop = Character.toLowerCase(name.charAt(3)) + name.substring(4);
-                    this.methods.put(prop, m);
-                    log.atDebug().log("Add row mapping: {} to {}({})", prop, name, ps[0].getType().getSimpleName());
+        try {
+            for (Field f : clazz.getFields()) {
+                if (Modifier.isStatic(f.getModifiers()) || Modifier.isFinal(f.getModifiers())) {
+                    continue;
+                }
+                String name = f.getName();
+                this.properties.put(name, new Property(f.getType(), createSetter(f.getType(), LOOKUP.unreflectSetter(f), false)));
+                log.atDebug().log("Add row mapping: {} to field {}", name, name);
+            }
+            for (Method m : clazz.getMethods()) {
+                Class<?>[] ps = m.getParameterTypes();
+                if (ps.length == 1 && !Modifier.isStatic(m.getModifiers())) {
+                    String name = m.getName();
+                    if (name.length() >= 4 && name.startsWith("set")) {
+                        String prop = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+                        this.properties.put(prop, new Property(ps[0], createSetter(ps[0], LOOKUP.unreflect(m), true)));
+                        log.atDebug().log("Add row mapping: {} to {}({})", prop, name, ps[0].getSimpleName());
+                    }
                 }
             }
+        } catch (ReflectiveOperationException ex) {
+            throw new DataAccessException(String.format("Could not access properties of class %s when build BeanRowMapper.",
+                    clazz.getName()), ex);
         }
     }
 
+    /**
+     * Get mapper bound to column layout of the ResultSet, which is used to map all rows of it.
+     */
+    public RowMapper<T> forResultSet(ResultSet rs) throws SQLException {
+        ColumnBinder[] binders = getBinders(rs.getMetaData());
+        return (r, rowNum) -> mapRow(r, binders);
+    }
+
     @Override
     public T mapRow(ResultSet rs, int rowNum) throws SQLException {
-        T bean;
+        return mapRow(rs, getBinders(rs.getMetaData()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private T mapRow(ResultSet rs, ColumnBinder[] binders) throws SQLException {
+        Object bean = this.constructor.get();
         try {
-            bean = this.constructor.newInstance();
-            ResultSetMetaData meta = rs.getMetaData();
-            int columns = meta.getColumnCount();
-            for (int i = 1; i <= columns; i++) {
-                String label = meta.getColumnLabel(i);
-                Method method = this.methods.get(label);
-                if (method != null) {
-                    method.invoke(bean, rs.getObject(label));
-                } else {
-                    Field field = this.fields.get(label);
-                    if (field != null) {
-                        field.set(bean, rs.getObject(label));
-                    }
-                }
+            for (ColumnBinder binder : binders) {
+                binder.bind(bean, rs);
             }
-        } catch (ReflectiveOperationException ex) {
+        } catch (ClassCastException ex) {
             throw new DataAccessException(String.format("Could not map result set to class %s", this.clazz.getName()), ex);
         }
-        return bean;
+        return (T) bean;
+    }
+
+    ColumnBinder[] getBinders(ResultSetMetaData meta) throws SQLException {
+        int columns = meta.getColumnCount();
+        String[] labels = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            labels[i] = meta.getColumnLabel(i + 1);
+        }
+        String key = String.join(",", labels);
+        ColumnBinder[] binders = this.layouts.get(key);
+        if (binders == null) {
+            binders = createBinders(labels);
+            if (this.layouts.size() < MAX_CACHED_LAYOUTS) {
+                this.layouts.put(key, binders);
+            }
+        }
+        return binders;
+    }
+
+    private ColumnBinder[] createBinders(String[] labels) {
+        List<ColumnBinder> binders = new ArrayList<>(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            Property property = this.properties.get(labels[i]);
+            if (property != null) {
+                binders.add(property.binder(i + 1));
+            }
+        }
+        return binders.toArray(new ColumnBinder[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> createConstructor(Constructor<?> constructor) throws ReflectiveOperationException {
+        MethodHandle mh = LOOKUP.unreflectConstructor(constructor);
+        try {
+            return (Supplier<Object>) LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), mh, MethodType.methodType(constructor.getDeclaringClass())).getTarget().invoke();
+        } catch (Throwable t) {
+            log.debug("generate constructor accessor failed, use method handle: {}", t.toString());
+        }
+        MethodHandle generic = mh.asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return generic.invokeExact();
+            } catch (Throwable t) {
+                throw new DataAccessException("Could not create instance of " + constructor.getDeclaringClass().getName(), t);
+            }
+        };
+    }
+
+    // setter of type (Object bean, X value), X is long, int, double, boolean or Object
+    private Object createSetter(Class<?> type, MethodHandle mh, boolean generate) {
+        Class<?> valueType = setterValueType(type);
+        Class<?> setterType = setterInterface(valueType);
+        MethodType samType = MethodType.methodType(void.class, Object.class, valueType);
+        if (generate) {
+            // LambdaMetafactory accepts method, not field
+            try {
+                MethodType instantiated = MethodType.methodType(void.class, this.clazz, valueType == Object.class ? wrap(type) : valueType);
+                return LambdaMetafactory.metafactory(LOOKUP, "set", MethodType.methodType(setterType), samType, mh, instantiated)
+                        .getTarget().invoke();
+            } catch (Throwable t) {
+                log.debug("generate setter accessor failed, use method handle: {}", t.toString());
+            }
+        }
+        MethodHandle h = mh.asType(samType);
+        if (valueType == long.class) {
+            return (LongSetter) (bean, value) -> invoke(() -> {
+                h.invokeExact(bean, value);
+            });
+        } else if (valueType == int.class) {
+            return (IntSetter) (bean, value) -> invoke(() -> {
+                h.invokeExact(bean, value);
+            });
+        } else if (valueType == double.class) {
+            return (DoubleSetter) (bean, value) -> invoke(() -> {
+                h.invokeExact(bean, value);
+            });
+        } else if (valueType == boolean.class) {
+            return (BooleanSetter) (bean, value) -> invoke(() -> {
+                h.invokeExact(bean, value);
+            });
+        }
+        return (ObjectSetter) (bean, value) -> invoke(() -> {
+                h.invokeExact(bean, value);
+            });
+    }
+
+    private static void invoke(Invocation invocation) {
+        try {
+            invocation.invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new DataAccessException(t);
+        }
+    }
+
+    private static Class<?> setterValueType(Class<?> type) {
+        if (type == long.class || type == int.class || type == double.class || type == boolean.class) {
+            return type;
+        }
+        return Object.class;
+    }
+
+    private static Class<?> setterInterface(Class<?> valueType) {
+        if (valueType == long.class) {
+            return LongSetter.class;
+        } else if (valueType == int.class) {
+            return IntSetter.class;
+        } else if (valueType == double.class) {
+            return DoubleSetter.class;
+        } else if (valueType == boolean.class) {
+            return BooleanSetter.class;
+        }
+        return ObjectSetter.class;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    /**
+     * Set column value to property of bean.
+     */
+    @FunctionalInterface
+    interface ColumnBinder {
+        void bind(Object bean, ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface ObjectSetter {
+        void set(Object bean, Object value);
+    }
+
+    @FunctionalInterface
+    interface LongSetter {
+        void set(Object bean, long value);
+    }
+
+    @FunctionalInterface
+    interface IntSetter {
+        void set(Object bean, int value);
+    }
+
+    @FunctionalInterface
+    interface DoubleSetter {
+        void set(Object bean, double value);
+    }
+
+    @FunctionalInterface
+    interface BooleanSetter {
+        void set(Object bean, boolean value);
+    }
+
+    @FunctionalInterface
+    interface Invocation {
+        void invoke() throws Throwable;
+    }
+
+    static class Property {
+
+        final Class<?> type;
+        final Object setter;
+
+        Property(Class<?> type, Object setter) {
+            this.type = type;
+            this.setter = setter;
+        }
+
+        // read column by getter of property type, SQL NULL leaves primitive property unchanged
+        ColumnBinder binder(int index) {
+            if (this.type == long.class) {
+                LongSetter s = (LongSetter) this.setter;
+                return (bean, rs) -> {
+                    long v = rs.getLong(index);
+                    if (v != 0 || !rs.wasNull()) {
+                        s.set(bean, v);
+                    }
+                };
+            }
+            if (this.type == int.class) {
+                IntSetter s = (IntSetter) this.setter;
+                return (bean, rs) -> {
+                    int v = rs.getInt(index);
+                    if (v != 0 || !rs.wasNull()) {
+                        s.set(bean, v);
+                    }
+                };
+            }
+            if (this.type == double.class) {
+                DoubleSetter s = (DoubleSetter) this.setter;
+                return (bean, rs) -> {
+                    double v = rs.getDouble(index);
+                    if (v != 0 || !rs.wasNull()) {
+                        s.set(bean, v);
+                    }
+                };
+            }
+            if (this.type == boolean.class) {
+                BooleanSetter s = (BooleanSetter) this.setter;
+                return (bean, rs) -> {
+                    boolean v = rs.getBoolean(index);
+                    if (v || !rs.wasNull()) {
+                        s.set(bean, v);
+                    }
+                };
+            }
+            ObjectSetter s = (ObjectSetter) this.setter;
+            if (this.type == String.class) {
+                return (bean, rs) -> s.set(bean, rs.getString(index));
+            }
+            if (this.type == Long.class) {
+                return (bean, rs) -> {
+                    long v = rs.getLong(index);
+                    s.set(bean, v == 0 && rs.wasNull() ? null : v);
+                };
+            }
+            if (this.type == Integer.class) {
+                return (bean, rs) -> {
+                    int v = rs.getInt(index);
+                    s.set(bean, v == 0 && rs.wasNull() ? null : v);
+                };
+            }
+            if (this.type == Double.class) {
+                return (bean, rs) -> {
+                    double v = rs.getDouble(index);
+                    s.set(bean, v == 0 && rs.wasNull() ? null : v);
+                };
+            }
+            if (this.type == Boolean.class) {
+                return (bean, rs) -> {
+                    boolean v = rs.getBoolean(index);
+                    s.set(bean, !v && rs.wasNull() ? null : v);
+                };
+            }
+            if (this.type == float.class || this.type == Float.class) {
+                return nullable(s, this.type.isPrimitive(), (rs) -> rs.getFloat(index));
+            }
+            if (this.type == short.class || this.type == Short.class) {
+                return nullable(s, this.type.isPrimitive(), (rs) -> rs.getShort(index));
+            }
+            if (this.type == byte.class || this.type == Byte.class) {
+                return nullable(s, this.type.isPrimitive(), (rs) -> rs.getByte(index));
+            }
+            if (this.type == BigDecimal.class) {
+                return (bean, rs) -> s.set(bean, rs.getBigDecimal(index));
+            }
+            if (this.type == byte[].class) {
+                return (bean, rs) -> s.set(bean, rs.getBytes(index));
+            }
+            return (bean, rs) -> s.set(bean, rs.getObject(index));
+        }
+
+        private static ColumnBinder nullable(ObjectSetter s, boolean primitive, ColumnGetter getter) {
+            return (bean, rs) -> {
+                Object v = getter.get(rs);
+                if (!rs.wasNull()) {
+                    s.set(bean, v);
+                } else if (!primitive) {
+                    s.set(bean, null);
+                }
+            };
+        }
+    }
+
+    @FunctionalInterface
+    interface ColumnGetter {
+        Object get(ResultSet rs) throws SQLException;
     }
 }
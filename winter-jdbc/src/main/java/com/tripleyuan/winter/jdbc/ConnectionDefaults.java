@@ -0,0 +1,33 @@
+package com.tripleyuan.winter.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Default state of connections borrowed from a pool, which resets the state when a connection is returned.
+ * <p>
+ * Resolved once, from HikariConfig or from the first connection, so callers change connection state only when it
+ * differs from the default, without asking driver every time.
+ */
+public class ConnectionDefaults {
+
+    private volatile Boolean autoCommit;
+
+    public ConnectionDefaults(DataSource dataSource) {
+        if (dataSource instanceof HikariConfig config) {
+            this.autoCommit = config.isAutoCommit();
+        }
+    }
+
+    public boolean isAutoCommit(Connection con) throws SQLException {
+        Boolean b = this.autoCommit;
+        if (b == null) {
+            b = con.getAutoCommit();
+            this.autoCommit = b;
+        }
+        return b;
+    }
+}
@@ -3,6 +3,7 @@ package com.tripleyuan.winter.jdbc;
 import com.tripleyuan.winter.annotation.Autowired;
 import com.tripleyuan.winter.annotation.Bean;
 import com.tripleyuan.winter.annotation.Configuration;
+import com.tripleyuan.winter.annotation.Primary;
 import com.tripleyuan.winter.annotation.Value;
 import com.tripleyuan.winter.jdbc.tx.DataSourceTransactionManager;
 import com.tripleyuan.winter.jdbc.tx.PlatformTransactionManager;
@@ -15,6 +16,7 @@ import javax.sql.DataSource;
 @Configuration
 public class JdbcConfiguration {
 
+    @Primary
     @Bean(destroyMethod = "close")
     public DataSource dataSource(
             @Value("${winter.datasource.url}") String url,
@@ -39,9 +41,54 @@ public class JdbcConfiguration {
         return new HikariDataSource(config);
     }
 
+    /**
+     * Autocommit, read-only pool for queries out of transaction, so they never switch autocommit. The pool is started
+     * on first use, which never happens if disabled.
+     */
+    @Bean(destroyMethod = "close")
+    public DataSource readOnlyDataSource(
+            @Value("${winter.datasource.url}") String url,
+            @Value("${winter.datasource.username}") String username,
+            @Value("${winter.datasource.password}") String password,
+            @Value("${winter.datasource.driver-class-name:}") String driver,
+            @Value("${winter.datasource.read-only.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${winter.datasource.read-only.minimum-pool-size:1}") int minimumPoolSize,
+            @Value("${winter.datasource.connection-timeout:30000}") int connTimeout,
+            // some drivers, e.g. sqlite, can not set read-only flag on an opened connection
+            @Value("${winter.datasource.read-only.connection-read-only:true}") boolean connectionReadOnly
+    ) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("winter-read-only");
+        ds.setAutoCommit(true);
+        ds.setReadOnly(connectionReadOnly);
+        ds.setJdbcUrl(url);
+        ds.setUsername(username);
+        ds.setPassword(password);
+        if (driver != null) {
+            ds.setDriverClassName(driver);
+        }
+        ds.setMaximumPoolSize(maximumPoolSize);
+        ds.setMinimumIdle(minimumPoolSize);
+        ds.setConnectionTimeout(connTimeout);
+        return ds;
+    }
+
     @Bean
-    public JdbcTemplate jdbcTemplate(@Autowired DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
+    public JdbcTemplate jdbcTemplate(
+            @Autowired DataSource dataSource,
+            @Autowired(name = "readOnlyDataSource") DataSource readOnlyDataSource,
+            @Value("${winter.datasource.read-only.enabled:false}") boolean readOnlyEnabled,
+            @Value("${winter.jdbc.batch-size:1000}") int batchSize,
+            @Value("${winter.jdbc.rewrite-batched-inserts:false}") boolean rewriteBatchedInserts,
+            @Value("${winter.jdbc.fetch-size:1000}") int fetchSize,
+            @Value("${winter.jdbc.statement-cache-size:64}") int statementCacheSize
+    ) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource, readOnlyEnabled ? readOnlyDataSource : null);
+        jdbcTemplate.setBatchSize(batchSize);
+        jdbcTemplate.setRewriteBatchedInserts(rewriteBatchedInserts);
+        jdbcTemplate.setFetchSize(fetchSize);
+        jdbcTemplate.setStatementCacheSize(statementCacheSize);
+        return jdbcTemplate;
     }
 
     @Bean
@@ -2,18 +2,86 @@ package com.tripleyuan.winter.jdbc;
 
 import com.tripleyuan.winter.exception.DataAccessException;
 import com.tripleyuan.winter.jdbc.tx.TransactionalUtils;
+import jakarta.annotation.Nullable;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public class JdbcTemplate {
 
-    private DataSource dataSource;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    // e.g. SQLite before 3.32 limits 999 parameters of a statement
+    static final int MAX_REWRITE_PARAMETERS = 999;
+
+    // "INSERT INTO ... VALUES (?, ?, ...)" which can be rewritten as multi-row insert
+    static final Pattern INSERT_VALUES = Pattern.compile("^\\s*(INSERT\\s+INTO\\s+.+?\\s+VALUES\\s*)(\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final DataSource dataSource;
+    private final ConnectionDefaults dataSourceDefaults;
+    @Nullable
+    private final DataSource readOnlyDataSource;
+    private final ConnectionDefaults readOnlyDataSourceDefaults;
+
+    // rows per executeBatch()
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    // send batch of single-row insert as multi-row inserts
+    private boolean rewriteBatchedInserts = false;
+    // rows fetched per round trip by query(), queryForStream()
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    // null if disabled
+    private StatementCache statementCache = new StatementCache(DEFAULT_STATEMENT_CACHE_SIZE);
 
     public JdbcTemplate(DataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    /**
+     * Queries out of transaction use readOnlyDataSource if not null, which is expected to be an autocommit pool.
+     * Streaming queries are the exception, see queryForStream().
+     */
+    public JdbcTemplate(DataSource dataSource, @Nullable DataSource readOnlyDataSource) {
         this.dataSource = dataSource;
+        this.dataSourceDefaults = new ConnectionDefaults(dataSource);
+        this.readOnlyDataSource = readOnlyDataSource;
+        this.readOnlyDataSourceDefaults = readOnlyDataSource == null ? null : new ConnectionDefaults(readOnlyDataSource);
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public void setRewriteBatchedInserts(boolean rewriteBatchedInserts) {
+        this.rewriteBatchedInserts = rewriteBatchedInserts;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Set max cached statements per connection, 0 to disable statement cache.
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+    }
+
+    @Nullable
+    public StatementCache getStatementCache() {
+        return this.statementCache;
     }
 
     public Number queryForNumber(String sql, Object... args) throws DataAccessException {
@@ -31,17 +99,18 @@ public class JdbcTemplate {
         if (Number.class.isAssignableFrom(clazz) || clazz.isPrimitive()) {
             return (T) queryForObject(sql, NumberRowMapper.instance, args);
         }
-        return queryForObject(sql, new BeanRowMapper<>(clazz), args);
+        return queryForObject(sql, BeanRowMapper.of(clazz), args);
     }
 
     public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
-        return execute(preparedStatementCreator(sql, args),
+        return executeQuery(preparedStatementCreator(sql, args),
                 (PreparedStatement ps) -> {
                     T t = null;
                     try (ResultSet rs = ps.executeQuery()) {
+                        RowMapper<T> mapper = prepareRowMapper(rowMapper, rs);
                         while (rs.next()) {
                             if (t == null) {
-                                t = rowMapper.mapRow(rs, rs.getRow());
+                                t = mapper.mapRow(rs, rs.getRow());
                             } else {
                                 throw new DataAccessException("Multiple rows found.");
                             }
@@ -55,30 +124,94 @@ public class JdbcTemplate {
     }
 
     public <T> List<T> queryForList(String sql, Class<T> clazz, Object... args) throws DataAccessException {
-        return queryForList(sql, new BeanRowMapper<>(clazz), args);
+        return queryForList(sql, BeanRowMapper.of(clazz), args);
     }
 
     public <T> List<T> queryForList(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
-        return execute(preparedStatementCreator(sql, args),
+        return executeQuery(preparedStatementCreator(sql, args),
                 (PreparedStatement ps) -> {
                     List<T> list = new ArrayList<>();
                     try (ResultSet rs = ps.executeQuery()) {
+                        RowMapper<T> mapper = prepareRowMapper(rowMapper, rs);
                         while (rs.next()) {
-                            list.add(rowMapper.mapRow(rs, rs.getRow()));
+                            list.add(mapper.mapRow(rs, rs.getRow()));
                         }
                     }
                     return list;
                 });
     }
 
+    public <T> T query(String sql, ResultSetExtractor<T> rse, Object... args) throws DataAccessException {
+        return executeQuery(queryStatementCreator(sql, args),
+                (PreparedStatement ps) -> {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rse.extractData(rs);
+                    }
+                });
+    }
+
+    public void query(String sql, RowCallbackHandler rch, Object... args) throws DataAccessException {
+        query(sql, (ResultSetExtractor<Void>) rs -> {
+            while (rs.next()) {
+                rch.processRow(rs);
+            }
+            return null;
+        }, args);
+    }
+
+    /**
+     * Query rows as a lazy stream over the open ResultSet, which must be closed after use:
+     *
+     * <code>
+     * try (Stream&lt;User&gt; users = jdbcTemplate.queryForStream(sql, rowMapper)) { ... }
+     * </code>
+     * <p>
+     * Out of transaction the stream holds a connection until closed. In transaction it is closed when the transaction
+     * ends and can not be used after that.
+     * <p>
+     * Out of transaction the connection is always taken from the manual-commit dataSource, even if readOnlyDataSource
+     * is set: some drivers (e.g. PostgreSQL) honour the fetch size only with autocommit off, and buffer the whole
+     * result set otherwise. The trade-off is that a long-running stream occupies a connection of the primary pool.
+     */
+    public <T> Stream<T> queryForStream(String sql, Class<T> clazz, Object... args) throws DataAccessException {
+        return queryForStream(sql, BeanRowMapper.of(clazz), args);
+    }
+
+    public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
+        Connection txCon = TransactionalUtils.getCurrentConnection();
+        Connection con = txCon;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            if (con == null) {
+                // not the autocommit read-only pool, so that rows are fetched in batches by cursor
+                con = this.dataSource.getConnection();
+            }
+            // not cached, the statement is held as long as the stream is open
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(this.fetchSize);
+            bindArgs(ps, args);
+            rs = ps.executeQuery();
+            ResultSetStream<T> rss = new ResultSetStream<>(txCon == null ? con : null, ps, rs, prepareRowMapper(rowMapper, rs));
+            if (txCon != null) {
+                TransactionalUtils.registerResource(rss);
+            }
+            return rss.stream();
+        } catch (SQLException ex) {
+            closeQuietly(rs);
+            closeQuietly(ps);
+            if (txCon == null && con != null) {
+                DataSourceUtils.releaseConnection(con);
+            }
+            throw new DataAccessException(ex);
+        }
+    }
+
     public Number updateAndReturnGeneratedKey(String sql, Object... args) throws DataAccessException {
         return execute(
                 // PreparedStatementCreator
-                (Connection con) -> {
-                    PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                    bindArgs(ps, args);
-                    return ps;
-                },
+                (Connection con) -> prepareStatement(con, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                        Statement.RETURN_GENERATED_KEYS, ps -> bindArgs(ps, args)),
                 // PreparedStatementCallback
                 (PreparedStatement ps) -> {
                     int n = ps.executeUpdate();
@@ -102,15 +235,185 @@ public class JdbcTemplate {
         return execute(preparedStatementCreator(sql, args), ps -> ps.executeUpdate());
     }
 
-    public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
-        return execute(con -> {
-            try (PreparedStatement ps = psc.createPreparedStatement(con)) {
-                return action.doInPreparedStatement(ps);
+    public int[] batchUpdate(String sql, List<Object[]> batchArgs) throws DataAccessException {
+        return batchUpdate(sql, batchArgs, this.batchSize, this::bindArgs, this::bindArgsAt);
+    }
+
+    public <T> int[] batchUpdate(String sql, Collection<T> items, ParameterSetter<T> setter) throws DataAccessException {
+        return batchUpdate(sql, items, this.batchSize, setter);
+    }
+
+    /**
+     * Execute statement for each item in batches of batchSize rows, returns update count of each item.
+     * <p>
+     * Out of transaction each batch is committed on success, otherwise it joins the current transaction.
+     */
+    public <T> int[] batchUpdate(String sql, Collection<T> items, int batchSize, ParameterSetter<T> setter) throws DataAccessException {
+        return batchUpdate(sql, items, batchSize, setter, null);
+    }
+
+    // rowSetter sets values of a row in multi-row insert, or null to shift parameter indexes of setter
+    private <T> int[] batchUpdate(String sql, Collection<T> items, int batchSize, ParameterSetter<T> setter,
+                                  @Nullable RowSetter<T> rowSetter) throws DataAccessException {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        if (this.rewriteBatchedInserts) {
+            Matcher matcher = INSERT_VALUES.matcher(sql);
+            if (matcher.matches()) {
+                if (rowSetter == null) {
+                    // one wrapper for all rows
+                    OffsetPreparedStatement shifted = new OffsetPreparedStatement();
+                    rowSetter = (ps, offset, item) -> setter.setValues(shifted.wrap(ps, offset), item);
+                }
+                return batchInsert(matcher.group(1), matcher.group(2), items, batchSize, rowSetter);
+            }
+        }
+        int[] counts = new int[items.size()];
+        executeBatch(con -> {
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                int n = 0;
+                int batched = 0;
+                for (T item : items) {
+                    setter.setValues(ps, item);
+                    ps.addBatch();
+                    if (++batched == batchSize || n + batched == counts.length) {
+                        int[] results = ps.executeBatch();
+                        System.arraycopy(results, 0, counts, n, results.length);
+                        n += batched;
+                        batched = 0;
+                        commitBatch(con);
+                    }
+                }
+            }
+            return null;
+        });
+        return counts;
+    }
+
+    /**
+     * Execute batch insert and returns generated keys in order of items. Whether the key of each row is returned depends
+     * on driver, e.g. SQLite returns only the last one of a batch.
+     */
+    public <T> List<Number> batchUpdateAndReturnGeneratedKeys(String sql, Collection<T> items, ParameterSetter<T> setter) throws DataAccessException {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<Number> keys = new ArrayList<>(items.size());
+        executeBatch(con -> {
+            try (PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                int n = 0;
+                int batched = 0;
+                for (T item : items) {
+                    setter.setValues(ps, item);
+                    ps.addBatch();
+                    if (++batched == this.batchSize || n + batched == items.size()) {
+                        ps.executeBatch();
+                        try (ResultSet rs = ps.getGeneratedKeys()) {
+                            while (rs.next()) {
+                                keys.add((Number) rs.getObject(1));
+                            }
+                        }
+                        n += batched;
+                        batched = 0;
+                        commitBatch(con);
+                    }
+                }
             }
+            return null;
         });
+        return keys;
     }
 
+    // send rows as "INSERT INTO ... VALUES (?, ?), (?, ?), ..." limited by MAX_REWRITE_PARAMETERS
+    private <T> int[] batchInsert(String prefix, String values, Collection<T> items, int batchSize, RowSetter<T> rowSetter) {
+        int params = (int) values.chars().filter(c -> c == '?').count();
+        int rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_REWRITE_PARAMETERS / params));
+        int[] counts = new int[items.size()];
+        executeBatch(con -> {
+            Iterator<T> it = items.iterator();
+            int n = 0;
+            PreparedStatement ps = null;
+            int psRows = 0;
+            try {
+                while (n < counts.length) {
+                    int rows = Math.min(rowsPerStatement, counts.length - n);
+                    if (rows != psRows) {
+                        // prepared once for full chunks, again for the last one
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        ps = con.prepareStatement(prefix + String.join(", ", Collections.nCopies(rows, values)));
+                        psRows = rows;
+                    }
+                    for (int i = 0; i < rows; i++) {
+                        rowSetter.setValues(ps, i * params, it.next());
+                    }
+                    int updated = ps.executeUpdate();
+                    Arrays.fill(counts, n, n + rows, updated == rows ? 1 : Statement.SUCCESS_NO_INFO);
+                    n += rows;
+                    commitBatch(con);
+                }
+            } finally {
+                if (ps != null) {
+                    ps.close();
+                }
+            }
+            return null;
+        });
+        return counts;
+    }
+
+    // set values of a row from parameter index offset + 1
+    @FunctionalInterface
+    private interface RowSetter<T> {
+        void setValues(PreparedStatement ps, int offset, T item) throws SQLException;
+    }
+
+    // out of transaction, run batches in manual-commit mode and commit each by commitBatch()
+    private <T> T executeBatch(ConnectionCallback<T> action) {
+        return execute(this.dataSource, this.dataSourceDefaults, action, true);
+    }
+
+    private void commitBatch(Connection con) throws SQLException {
+        if (TransactionalUtils.getCurrentConnection() == null) {
+            con.commit();
+        }
+    }
+
+    public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+        return execute(connectionCallback(psc, action));
+    }
+
+    /**
+     * Out of transaction the action is committed when it returns, by autocommit if it is the default of pool, otherwise
+     * by commit().
+     */
     public <T> T execute(ConnectionCallback<T> action) {
+        return execute(this.dataSource, this.dataSourceDefaults, action, false);
+    }
+
+    // query on read-only pool if exists when out of transaction
+    private <T> T executeQuery(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+        if (this.readOnlyDataSource == null) {
+            return execute(psc, action);
+        }
+        return execute(this.readOnlyDataSource, this.readOnlyDataSourceDefaults, connectionCallback(psc, action), false);
+    }
+
+    private <T> ConnectionCallback<T> connectionCallback(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+        return con -> {
+            PreparedStatement ps = psc.createPreparedStatement(con);
+            try {
+                return action.doInPreparedStatement(ps);
+            } finally {
+                releaseStatement(con, ps);
+            }
+        };
+    }
+
+    // manualCommit: out of transaction the action commits by itself, and is rolled back on failure
+    private <T> T execute(DataSource ds, ConnectionDefaults defaults, ConnectionCallback<T> action, boolean manualCommit) {
         // use current connection if exists
         Connection con = TransactionalUtils.getCurrentConnection();
         if (con != null) {
@@ -123,16 +426,33 @@ public class JdbcTemplate {
 
         // get a new connection
         try {
-            con = dataSource.getConnection();
-            boolean autoCommit = con.getAutoCommit();
-            if (!autoCommit) {
-                con.setAutoCommit(true);
+            con = ds.getConnection();
+            boolean autoCommit = defaults.isAutoCommit(con);
+            if (autoCommit && !manualCommit) {
+                return action.doInConnection(con);
             }
-            T t = action.doInConnection(con);
-            if (!autoCommit) {
+            // switch autocommit only if pool default is not manual commit
+            if (autoCommit) {
                 con.setAutoCommit(false);
             }
-            return t;
+            try {
+                T t = action.doInConnection(con);
+                if (!manualCommit) {
+                    con.commit();
+                }
+                return t;
+            } catch (SQLException | RuntimeException ex) {
+                try {
+                    con.rollback();
+                } catch (SQLException rollbackEx) {
+                    ex.addSuppressed(rollbackEx);
+                }
+                throw ex;
+            } finally {
+                if (autoCommit) {
+                    con.setAutoCommit(true);
+                }
+            }
         } catch (SQLException ex) {
             throw new DataAccessException(ex);
         } finally {
@@ -140,17 +460,78 @@ public class JdbcTemplate {
         }
     }
 
+    // resolve column layout once per ResultSet instead of per row
+    private <T> RowMapper<T> prepareRowMapper(RowMapper<T> rowMapper, ResultSet rs) throws SQLException {
+        if (rowMapper instanceof BeanRowMapper) {
+            return ((BeanRowMapper<T>) rowMapper).forResultSet(rs);
+        }
+        return rowMapper;
+    }
+
+    // forward-only, read-only cursor which fetches rows in batches
+    private PreparedStatementCreator queryStatementCreator(String sql, Object... args) {
+        return con -> prepareStatement(con, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                Statement.NO_GENERATED_KEYS, ps -> {
+                    ps.setFetchSize(this.fetchSize);
+                    bindArgs(ps, args);
+                });
+    }
+
+    private static void closeQuietly(@Nullable AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception ex) {
+                // ignore
+            }
+        }
+    }
+
     private PreparedStatementCreator preparedStatementCreator(String sql, Object... args) {
-        return con -> {
-            PreparedStatement ps = con.prepareStatement(sql);
-            bindArgs(ps, args);
-            return ps;
-        };
+        return con -> prepareStatement(con, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                Statement.NO_GENERATED_KEYS, ps -> bindArgs(ps, args));
+    }
+
+    // borrow statement from cache if enabled, which is given back by releaseStatement()
+    private PreparedStatement prepareStatement(Connection con, String sql, int resultSetType, int resultSetConcurrency,
+                                               int autoGeneratedKeys, StatementSetter setter) throws SQLException {
+        PreparedStatement ps;
+        if (this.statementCache != null) {
+            ps = this.statementCache.prepare(con, sql, resultSetType, resultSetConcurrency, autoGeneratedKeys);
+        } else if (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+            ps = con.prepareStatement(sql, autoGeneratedKeys);
+        } else {
+            ps = con.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        try {
+            setter.setValues(ps);
+        } catch (SQLException | RuntimeException ex) {
+            releaseStatement(con, ps);
+            throw ex;
+        }
+        return ps;
+    }
+
+    @FunctionalInterface
+    private interface StatementSetter {
+        void setValues(PreparedStatement ps) throws SQLException;
+    }
+
+    private void releaseStatement(Connection con, PreparedStatement ps) throws SQLException {
+        if (this.statementCache != null) {
+            this.statementCache.release(con, ps);
+        } else {
+            ps.close();
+        }
     }
 
     private void bindArgs(PreparedStatement ps, Object... args) throws SQLException {
+        bindArgsAt(ps, 0, args);
+    }
+
+    private void bindArgsAt(PreparedStatement ps, int offset, Object[] args) throws SQLException {
         for (int i = 0; i < args.length; i++) {
-            ps.setObject(i + 1, args[i]);
+            ps.setObject(offset + i + 1, args[i]);
         }
     }
 }
@@ -0,0 +1,14 @@
+package com.tripleyuan.winter.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Set parameters of a row in batch update, from index 1.
+ */
+@FunctionalInterface
+public interface ParameterSetter<T> {
+
+    void setValues(PreparedStatement ps, T item) throws SQLException;
+
+}
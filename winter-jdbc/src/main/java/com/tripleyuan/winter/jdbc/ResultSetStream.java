@@ -0,0 +1,87 @@
+package com.tripleyuan.winter.jdbc;
+
+import com.tripleyuan.winter.exception.DataAccessException;
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Map rows of an open ResultSet lazily when the stream is consumed.
+ * <p>
+ * ResultSet and statement are closed when the stream is closed or exhausted, and so is the connection if owned by the
+ * stream (out of transaction). A stream opened in transaction is closed when the transaction ends.
+ */
+@Slf4j
+class ResultSetStream<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private final Connection connection;
+    private final boolean ownConnection;
+    private final PreparedStatement ps;
+    private final ResultSet rs;
+    private final RowMapper<T> rowMapper;
+
+    private boolean closed = false;
+
+    ResultSetStream(@Nullable Connection connection, PreparedStatement ps, ResultSet rs, RowMapper<T> rowMapper) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.connection = connection;
+        this.ownConnection = connection != null;
+        this.ps = ps;
+        this.rs = rs;
+        this.rowMapper = rowMapper;
+    }
+
+    Stream<T> stream() {
+        return StreamSupport.stream(this, false).onClose(this::close);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (this.closed) {
+            throw new DataAccessException("ResultSet stream is closed.");
+        }
+        T t;
+        try {
+            if (!this.rs.next()) {
+                close();
+                return false;
+            }
+            t = this.rowMapper.mapRow(this.rs, this.rs.getRow());
+        } catch (SQLException ex) {
+            close();
+            throw new DataAccessException(ex);
+        }
+        action.accept(t);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.rs.close();
+        } catch (SQLException ex) {
+            log.debug("Couldn't close JDBC ResultSet", ex);
+        }
+        try {
+            this.ps.close();
+        } catch (SQLException ex) {
+            log.debug("Couldn't close JDBC Statement", ex);
+        }
+        if (this.ownConnection) {
+            DataSourceUtils.releaseConnection(this.connection);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.tripleyuan.winter.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowCallbackHandler {
+
+    void processRow(ResultSet rs) throws SQLException;
+
+}
@@ -0,0 +1,140 @@
+package com.tripleyuan.winter.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of PreparedStatement for each physical connection, keyed by SQL and statement options.
+ * <p>
+ * Statements are prepared on the physical connection unwrapped from pooled connection, so they are not closed when the
+ * pooled connection is returned, and reused by next borrower of the same physical connection, including the connection
+ * of current transaction. A statement is borrowed by prepare() and must be given back by release(), which clears its
+ * parameters and puts it back, or closes it if it is not cached.
+ */
+@Slf4j
+public class StatementCache {
+
+    record Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+    }
+
+    private final int maxSize;
+    private final Map<Connection, ConnectionStatements> connections = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StatementCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    PreparedStatement prepare(Connection con, String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys)
+            throws SQLException {
+        ConnectionStatements statements = statementsOf(con);
+        return statements.borrow(new Key(sql, resultSetType, resultSetConcurrency, autoGeneratedKeys));
+    }
+
+    void release(Connection con, PreparedStatement ps) throws SQLException {
+        ConnectionStatements statements = this.connections.get(physicalConnection(con));
+        if (statements == null || !statements.giveBack(ps)) {
+            ps.close();
+        }
+    }
+
+    private ConnectionStatements statementsOf(Connection con) throws SQLException {
+        Connection physical = physicalConnection(con);
+        ConnectionStatements statements = this.connections.get(physical);
+        if (statements == null) {
+            // new physical connection, drop caches of closed ones:
+            this.connections.keySet().removeIf(c -> {
+                try {
+                    return c.isClosed();
+                } catch (SQLException ex) {
+                    return true;
+                }
+            });
+            statements = this.connections.computeIfAbsent(physical, ConnectionStatements::new);
+        }
+        return statements;
+    }
+
+    private static Connection physicalConnection(Connection con) throws SQLException {
+        return con.isWrapperFor(Connection.class) ? con.unwrap(Connection.class) : con;
+    }
+
+    // a physical connection is used by one thread at a time, lock is almost uncontended:
+    class ConnectionStatements {
+
+        final Connection connection;
+        final LinkedHashMap<Key, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+        final Map<PreparedStatement, Key> borrowed = new IdentityHashMap<>();
+
+        ConnectionStatements(Connection connection) {
+            this.connection = connection;
+        }
+
+        synchronized PreparedStatement borrow(Key key) throws SQLException {
+            PreparedStatement ps = this.idle.remove(key);
+            if (ps != null && !ps.isClosed()) {
+                hits.increment();
+            } else {
+                misses.increment();
+                ps = key.autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+                        ? this.connection.prepareStatement(key.sql, Statement.RETURN_GENERATED_KEYS)
+                        : this.connection.prepareStatement(key.sql, key.resultSetType, key.resultSetConcurrency);
+            }
+            this.borrowed.put(ps, key);
+            return ps;
+        }
+
+        synchronized boolean giveBack(PreparedStatement ps) throws SQLException {
+            Key key = this.borrowed.remove(ps);
+            if (key == null) {
+                return false;
+            }
+            // same statement borrowed twice at the same time, keep the first returned one:
+            if (this.idle.containsKey(key) || ps.isClosed()) {
+                return false;
+            }
+            ps.clearParameters();
+            this.idle.put(key, ps);
+            if (this.idle.size() > maxSize) {
+                Iterator<PreparedStatement> it = this.idle.values().iterator();
+                PreparedStatement eldest = it.next();
+                it.remove();
+                evictions.increment();
+                try {
+                    eldest.close();
+                } catch (SQLException ex) {
+                    log.debug("Couldn't close evicted JDBC Statement", ex);
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.tripleyuan.winter.jdbc.tx;
 
 import com.tripleyuan.winter.exception.TransactionException;
+import com.tripleyuan.winter.jdbc.ConnectionDefaults;
 
 import javax.sql.DataSource;
 import java.lang.reflect.InvocationHandler;
@@ -13,9 +14,11 @@ public class DataSourceTransactionManager implements PlatformTransactionManager,
 
     static final ThreadLocal<TransactionStatus> transactionStatus = new ThreadLocal<>();
     final DataSource dataSource;
+    final ConnectionDefaults defaults;
 
     public DataSourceTransactionManager(DataSource dataSource) {
         this.dataSource = dataSource;
+        this.defaults = new ConnectionDefaults(dataSource);
     }
 
     @Override
@@ -24,15 +27,22 @@ public class DataSourceTransactionManager implements PlatformTransactionManager,
         if (ts == null) {
             // begin new transactions
             try (Connection conn = dataSource.getConnection()) {
-                final boolean autoCommit = conn.getAutoCommit();
+                // pool default is known, no need to ask driver
+                final boolean autoCommit = defaults.isAutoCommit(conn);
                 if (autoCommit) {
                     conn.setAutoCommit(false);
                 }
 
-                transactionStatus.set(new TransactionStatus(conn));
+                TransactionStatus status = new TransactionStatus(conn);
+                transactionStatus.set(status);
 
                 try {
-                    Object ret = method.invoke(proxy, args);
+                    Object ret;
+                    try {
+                        ret = method.invoke(proxy, args);
+                    } finally {
+                        status.closeResources();
+                    }
                     conn.commit();
                     return ret;
                 } catch (InvocationTargetException ex) {
@@ -1,13 +1,30 @@
 package com.tripleyuan.winter.jdbc.tx;
 
+import lombok.extern.slf4j.Slf4j;
+
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
 
+@Slf4j
 public class TransactionStatus {
 
     final Connection connection;
+    // e.g. open ResultSet streams which must not outlive the transaction
+    final List<AutoCloseable> resources = new ArrayList<>();
 
     public TransactionStatus(Connection connection) {
         this.connection = connection;
     }
 
+    void closeResources() {
+        for (AutoCloseable resource : this.resources) {
+            try {
+                resource.close();
+            } catch (Exception ex) {
+                log.debug("Couldn't close transactional resource", ex);
+            }
+        }
+        this.resources.clear();
+    }
 }
@@ -12,4 +12,16 @@ public class TransactionalUtils {
         return ts == null ? null : ts.connection;
     }
 
+    /**
+     * Close resource when current transaction ends. Returns false if there is no transaction.
+     */
+    public static boolean registerResource(AutoCloseable resource) {
+        TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
+        if (ts == null) {
+            return false;
+        }
+        ts.resources.add(resource);
+        return true;
+    }
+
 }
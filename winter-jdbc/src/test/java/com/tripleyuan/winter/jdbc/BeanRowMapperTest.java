@@ -0,0 +1,115 @@
+package com.tripleyuan.winter.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeanRowMapperTest {
+
+    public static class Product {
+        public long id;
+        public String name;
+        public double price;
+        public boolean onSale;
+        public Integer stock;
+        public float weight;
+        public Long categoryId;
+        String internal;
+
+        public int rating = -1;
+
+        // setter takes precedence over field
+        public void setName(String name) {
+            this.name = name.toUpperCase();
+        }
+
+        // fluent setter
+        public Product setInternal(String internal) {
+            this.internal = internal;
+            return this;
+        }
+    }
+
+    Connection conn;
+
+    @BeforeEach
+    void init() throws SQLException {
+        this.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = this.conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE products (id INTEGER PRIMARY KEY, name TEXT, price REAL, onSale INTEGER, stock INTEGER, "
+                    + "weight REAL, categoryId INTEGER, internal TEXT, rating INTEGER, unknown TEXT)");
+            stmt.executeUpdate("INSERT INTO products VALUES (1, 'apple', 2.5, 1, 100, 0.2, 3000000000, 'x', 5, 'u')");
+            stmt.executeUpdate("INSERT INTO products VALUES (2, 'pear', 3, 0, NULL, 0.3, NULL, NULL, NULL, NULL)");
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        this.conn.close();
+    }
+
+    @Test
+    void mapRows() throws SQLException {
+        List<Product> products = query("SELECT * FROM products ORDER BY id");
+        assertEquals(2, products.size());
+
+        Product apple = products.get(0);
+        assertEquals(1, apple.id);
+        assertEquals("APPLE", apple.name);
+        assertEquals(2.5, apple.price);
+        assertTrue(apple.onSale);
+        assertEquals(100, apple.stock);
+        assertEquals(0.2f, apple.weight);
+        assertEquals(3000000000L, apple.categoryId);
+        assertEquals("x", apple.internal);
+        assertEquals(5, apple.rating);
+
+        Product pear = products.get(1);
+        assertEquals("PEAR", pear.name);
+        assertFalse(pear.onSale);
+        assertNull(pear.stock);
+        assertNull(pear.categoryId);
+        assertNull(pear.internal);
+        // NULL leaves primitive unchanged
+        assertEquals(-1, pear.rating);
+    }
+
+    @Test
+    void cachedMapperAndLayout() throws SQLException {
+        BeanRowMapper<Product> mapper = BeanRowMapper.of(Product.class);
+        assertSame(mapper, BeanRowMapper.of(Product.class));
+        int layouts = mapper.layouts.size();
+
+        query("SELECT id, name FROM products");
+        query("SELECT id, name FROM products WHERE id = 1");
+        query("SELECT name, id FROM products");
+        assertEquals(layouts + 2, mapper.layouts.size());
+
+        // columns are bound by label, not by position
+        Product p = query("SELECT price, id FROM products WHERE id = 2").get(0);
+        assertEquals(2, p.id);
+        assertEquals(3.0, p.price);
+        assertNull(p.name);
+    }
+
+    List<Product> query(String sql) throws SQLException {
+        List<Product> list = new ArrayList<>();
+        try (Statement stmt = this.conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            RowMapper<Product> mapper = BeanRowMapper.of(Product.class).forResultSet(rs);
+            while (rs.next()) {
+                list.add(mapper.mapRow(rs, rs.getRow()));
+            }
+        }
+        return list;
+    }
+}
@@ -37,13 +37,17 @@ public class JdbcTestBase {
     }
 
     public PropertyResolver createPropertyResolver() {
+        var pr = new PropertyResolver(createProperties());
+        return pr;
+    }
+
+    public Properties createProperties() {
         var ps = new Properties();
         ps.put("winter.datasource.url", "jdbc:sqlite:test.db");
         ps.put("winter.datasource.username", "sa");
         ps.put("winter.datasource.password", "");
         ps.put("winter.datasource.driver-class-name", "org.sqlite.JDBC");
-        var pr = new PropertyResolver(ps);
-        return pr;
+        return ps;
     }
 
     void cleanDb() {
@@ -0,0 +1,66 @@
+package com.tripleyuan.winter.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Per-call latency of a hot lookup query by primary key on sqlite, with and without statement cache.
+ * <p>
+ * Run main() with test classpath, e.g. from IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementCacheBenchmark {
+
+    @Param({"0", "64"})
+    int statementCacheSize;
+
+    HikariDataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    int id = 0;
+
+    @Setup
+    public void setup() {
+        HikariConfig config = new HikariConfig();
+        config.setAutoCommit(false);
+        config.setJdbcUrl("jdbc:sqlite:file:bench?mode=memory&cache=shared");
+        config.setMaximumPoolSize(1);
+        this.dataSource = new HikariDataSource(config);
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.jdbcTemplate.setStatementCacheSize(this.statementCacheSize);
+        this.jdbcTemplate.update("DROP TABLE IF EXISTS users");
+        this.jdbcTemplate.update(JdbcTestBase.CREATE_USER);
+        List<Integer> ages = IntStream.range(0, 1000).boxed().toList();
+        this.jdbcTemplate.batchUpdate(JdbcTestBase.INSERT_USER, ages, (ps, age) -> {
+            ps.setString(1, "User-" + age);
+            ps.setInt(2, age);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.dataSource.close();
+    }
+
+    @Benchmark
+    public String lookup() {
+        this.id = this.id % 1000 + 1;
+        return this.jdbcTemplate.queryForObject(JdbcTestBase.SELECT_USER_NAME, String.class, this.id);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StatementCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,12 @@
+package com.tripleyuan.winter.jdbc.readonly;
+
+import com.tripleyuan.winter.annotation.ComponentScan;
+import com.tripleyuan.winter.annotation.Configuration;
+import com.tripleyuan.winter.annotation.Import;
+import com.tripleyuan.winter.jdbc.JdbcConfiguration;
+
+@ComponentScan
+@Configuration
+@Import(JdbcConfiguration.class)
+public class ReadOnlyApplication {
+}
@@ -0,0 +1,64 @@
+package com.tripleyuan.winter.jdbc.readonly;
+
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.io.PropertyResolver;
+import com.tripleyuan.winter.jdbc.JdbcTemplate;
+import com.tripleyuan.winter.jdbc.JdbcTestBase;
+import com.tripleyuan.winter.jdbc.ResultSetExtractor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadOnlyDataSourceTest extends JdbcTestBase {
+
+    @Test
+    public void queryOnReadOnlyPool() throws SQLException {
+        var ps = createProperties();
+        ps.put("winter.datasource.read-only.enabled", "true");
+        ps.put("winter.datasource.read-only.connection-read-only", "false");
+        try (var ctx = new AnnotationConfigApplicationContext(ReadOnlyApplication.class, new PropertyResolver(ps))) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            HikariDataSource readOnlyDataSource = ctx.getBean("readOnlyDataSource");
+            // primary data source is injected by type:
+            assertNotSame(readOnlyDataSource, ctx.getBean(DataSource.class));
+
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.update(INSERT_USER, "Bob", 12);
+            assertFalse(readOnlyDataSource.isRunning());
+
+            assertEquals("Bob", jdbcTemplate.queryForObject(SELECT_USER_NAME, String.class, 1));
+            assertTrue(readOnlyDataSource.isRunning());
+            assertEquals(1, jdbcTemplate.query("SELECT COUNT(*) FROM users", (ResultSetExtractor<Integer>) rs -> rs.next() ? rs.getInt(1) : 0));
+            // stream uses manual-commit primary pool, so that rows are fetched by cursor:
+            HikariDataSource dataSource = (HikariDataSource) ctx.getBean(DataSource.class);
+            try (Stream<String> names = jdbcTemplate.queryForStream("SELECT name FROM users", (rs, rowNum) -> rs.getString(1))) {
+                assertEquals(1, dataSource.getHikariPoolMXBean().getActiveConnections());
+                assertEquals(0, readOnlyDataSource.getHikariPoolMXBean().getActiveConnections());
+                assertEquals(1, names.count());
+            }
+
+            try (Connection con = readOnlyDataSource.getConnection()) {
+                assertTrue(con.getAutoCommit());
+            }
+        }
+    }
+
+    @Test
+    public void disabled() {
+        try (var ctx = new AnnotationConfigApplicationContext(ReadOnlyApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            HikariDataSource readOnlyDataSource = ctx.getBean("readOnlyDataSource");
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.update(INSERT_USER, "Bob", 12);
+            assertEquals("Bob", jdbcTemplate.queryForObject(SELECT_USER_NAME, String.class, 1));
+            // never started:
+            assertFalse(readOnlyDataSource.isRunning());
+        }
+    }
+}
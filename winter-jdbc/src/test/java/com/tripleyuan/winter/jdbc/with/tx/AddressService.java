@@ -26,6 +26,14 @@ public class AddressService {
         }
     }
 
+    public int[] importAddresses(List<Address> addresses) {
+        return jdbcTemplate.batchUpdate(JdbcTestBase.INSERT_ADDRESS, addresses, (ps, address) -> {
+            ps.setInt(1, address.userId);
+            ps.setString(2, address.address);
+            ps.setInt(3, address.zip);
+        });
+    }
+
     public List<Address> getAddresses(int userId) {
         return jdbcTemplate.queryForList(JdbcTestBase.SELECT_ADDRESS_BY_USERID, Address.class, userId);
     }
@@ -1,6 +1,7 @@
 package com.tripleyuan.winter.jdbc.with.tx;
 
 import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.exception.DataAccessException;
 import com.tripleyuan.winter.exception.TransactionException;
 import com.tripleyuan.winter.jdbc.JdbcTemplate;
 import com.tripleyuan.winter.jdbc.JdbcTestBase;
@@ -56,6 +57,21 @@ public class JdbcWithTxTest extends JdbcTestBase {
             // bob and his addresses still exist:
             assertEquals("Bob", userService.getUser(1).name);
             assertEquals(2, addressService.getAddresses(bob.id).size());
+
+            // batch joins transaction, NOT NULL address fails and rollback whole batch:
+            jdbcTemplate.setBatchSize(2);
+            Address addr4 = new Address(bob.id, "Main Street, Boston", 2108);
+            Address addr5 = new Address(bob.id, null, 2109);
+            assertThrows(TransactionException.class, () -> {
+                addressService.importAddresses(List.of(addr4, addr4, addr5));
+            });
+            assertEquals(2, addressService.getAddresses(bob.id).size());
+
+            // stream in transaction:
+            assertEquals(1, userService.countUsersOlderThan(10));
+            assertEquals(0, userService.countUsersOlderThan(12));
+            var users = userService.streamUsers();
+            assertThrows(DataAccessException.class, () -> users.count());
         }
         // re-open db and query:
         try (var ctx = new AnnotationConfigApplicationContext(JdbcWithTxApplication.class, createPropertyResolver())) {
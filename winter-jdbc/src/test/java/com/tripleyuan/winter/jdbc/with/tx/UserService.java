@@ -6,6 +6,8 @@ import com.tripleyuan.winter.annotation.Transactional;
 import com.tripleyuan.winter.jdbc.JdbcTemplate;
 import com.tripleyuan.winter.jdbc.JdbcTestBase;
 
+import java.util.stream.Stream;
+
 @Component
 @Transactional
 public class UserService {
@@ -29,6 +31,17 @@ public class UserService {
         return jdbcTemplate.queryForObject(JdbcTestBase.SELECT_USER, User.class, userId);
     }
 
+    public long countUsersOlderThan(int age) {
+        try (Stream<User> users = jdbcTemplate.queryForStream("SELECT * FROM users", User.class)) {
+            return users.filter(u -> u.theAge > age).count();
+        }
+    }
+
+    // stream must not leak out of transaction
+    public Stream<User> streamUsers() {
+        return jdbcTemplate.queryForStream("SELECT * FROM users", User.class);
+    }
+
     public void updateUser(User user) {
         jdbcTemplate.update(JdbcTestBase.UPDATE_USER, user.name, user.theAge, user.id);
     }
@@ -0,0 +1,113 @@
+package com.tripleyuan.winter.jdbc.without.tx;
+
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.exception.DataAccessException;
+import com.tripleyuan.winter.jdbc.JdbcTemplate;
+import com.tripleyuan.winter.jdbc.JdbcTestBase;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchUpdateTest extends JdbcTestBase {
+
+    @Test
+    public void batchUpdate() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.setBatchSize(3);
+
+            List<Object[]> args = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                args.add(new Object[]{"User-" + i, 20 + i});
+            }
+            assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, jdbcTemplate.batchUpdate(INSERT_USER, args));
+            assertEquals(10, jdbcTemplate.queryForNumber("SELECT COUNT(*) FROM users").intValue());
+
+            // typed items:
+            int[] counts = jdbcTemplate.batchUpdate("UPDATE users SET age = age + 1 WHERE age >= ?", List.of(25, 28, 100), (ps, age) -> ps.setInt(1, age));
+            assertArrayEquals(new int[]{5, 3, 0}, counts);
+            User user = jdbcTemplate.queryForObject(SELECT_USER, User.class, 10);
+            assertEquals(31, user.theAge);
+        }
+    }
+
+    @Test
+    public void batchUpdateFailed() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.setBatchSize(2);
+
+            List<String> names = new ArrayList<>(List.of("A", "B", "C"));
+            names.add(null);
+            assertThrows(DataAccessException.class, () -> {
+                jdbcTemplate.batchUpdate(INSERT_USER, names, (ps, name) -> {
+                    ps.setString(1, name);
+                    ps.setInt(2, 1);
+                });
+            });
+            // committed batch is kept, failed batch is rolled back:
+            assertEquals(2, jdbcTemplate.queryForNumber("SELECT COUNT(*) FROM users").intValue());
+        }
+    }
+
+    @Test
+    public void batchUpdateAndReturnGeneratedKeys() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.setBatchSize(2);
+
+            List<Number> keys = jdbcTemplate.batchUpdateAndReturnGeneratedKeys(INSERT_USER, List.of("A", "B", "C"), (ps, name) -> {
+                ps.setString(1, name);
+                ps.setInt(2, 1);
+            });
+            // SQLite returns key of last row in each batch:
+            assertEquals(List.of(2, 3), keys.stream().map(Number::intValue).toList());
+        }
+    }
+
+    @Test
+    public void rewriteBatchedInserts() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.setRewriteBatchedInserts(true);
+
+            // 2 parameters per row, 499 rows per statement:
+            List<Integer> ages = IntStream.range(0, 1200).boxed().toList();
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_USER, ages, (ps, age) -> {
+                ps.setString(1, "User-" + age);
+                ps.setInt(2, age);
+            });
+            assertEquals(1200, counts.length);
+            assertTrue(IntStream.of(counts).allMatch(n -> n == 1));
+            assertEquals(1200, jdbcTemplate.queryForNumber("SELECT COUNT(*) FROM users").intValue());
+            // parameters of each row are bound in order:
+            User user = jdbcTemplate.queryForObject(SELECT_USER, User.class, 1000);
+            assertEquals("User-999", user.name);
+            assertEquals(999, user.theAge);
+
+            // Object[] of each row:
+            List<Object[]> args = List.of(new Object[]{"X", 1}, new Object[]{"Y", 2}, new Object[]{"Z", 3});
+            assertArrayEquals(new int[]{1, 1, 1}, jdbcTemplate.batchUpdate(INSERT_USER, args));
+            user = jdbcTemplate.queryForObject(SELECT_USER, User.class, 1203);
+            assertEquals("Z", user.name);
+            assertEquals(3, user.theAge);
+
+            // not rewritable:
+            counts = jdbcTemplate.batchUpdate("UPDATE users SET age = ? WHERE id = ?", List.of(1, 2), (ps, id) -> {
+                ps.setInt(1, 0);
+                ps.setInt(2, id);
+            });
+            assertArrayEquals(new int[]{1, 1}, counts);
+            assertNotEquals(Statement.SUCCESS_NO_INFO, counts[0]);
+        }
+    }
+}
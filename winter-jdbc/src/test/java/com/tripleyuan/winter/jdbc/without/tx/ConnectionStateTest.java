@@ -0,0 +1,102 @@
+package com.tripleyuan.winter.jdbc.without.tx;
+
+import com.tripleyuan.winter.jdbc.JdbcTemplate;
+import com.tripleyuan.winter.jdbc.JdbcTestBase;
+import com.tripleyuan.winter.exception.DataAccessException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionStateTest extends JdbcTestBase {
+
+    // method name -> calls on connections
+    final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    @Test
+    public void manualCommitPool() {
+        try (HikariDataSource pool = createPool(false)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(countingDataSource(pool));
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.update(INSERT_USER, "Bob", 12);
+            jdbcTemplate.batchUpdate(INSERT_USER, List.of(new Object[]{"Alice", 13}, new Object[]{"Tom", 14}));
+            for (int i = 0; i < 5; i++) {
+                assertEquals("Bob", jdbcTemplate.queryForObject(SELECT_USER_NAME, String.class, 1));
+            }
+            // committed instead of switching autocommit, default is asked once:
+            assertEquals(0, count("setAutoCommit"));
+            assertEquals(1, count("getAutoCommit"));
+            assertEquals(2 + 1 + 5, count("commit"));
+
+            // failed update is rolled back:
+            assertThrows(DataAccessException.class, () -> jdbcTemplate.update(INSERT_USER, null, 15));
+            assertEquals(1, count("rollback"));
+            assertEquals(3, jdbcTemplate.queryForNumber("SELECT COUNT(*) FROM users").intValue());
+        }
+    }
+
+    @Test
+    public void autoCommitPool() {
+        try (HikariDataSource pool = createPool(true)) {
+            // default is read from HikariConfig:
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+            JdbcTemplate countingTemplate = new JdbcTemplate(countingDataSource(pool));
+            jdbcTemplate.update(CREATE_USER);
+            countingTemplate.update(INSERT_USER, "Bob", 12);
+            assertEquals("Bob", countingTemplate.queryForObject(SELECT_USER_NAME, String.class, 1));
+            assertEquals(0, count("setAutoCommit"));
+            assertEquals(0, count("commit"));
+
+            // batch switches to manual commit only when it differs:
+            countingTemplate.batchUpdate(INSERT_USER, List.of(new Object[]{"Alice", 13}, new Object[]{"Tom", 14}));
+            assertEquals(2, count("setAutoCommit"));
+            assertEquals(1, count("commit"));
+            assertEquals(3, jdbcTemplate.queryForNumber("SELECT COUNT(*) FROM users").intValue());
+        }
+    }
+
+    HikariDataSource createPool(boolean autoCommit) {
+        var config = new HikariConfig();
+        config.setAutoCommit(autoCommit);
+        config.setJdbcUrl("jdbc:sqlite:test.db");
+        config.setMaximumPoolSize(2);
+        return new HikariDataSource(config);
+    }
+
+    int count(String method) {
+        AtomicInteger n = this.calls.get(method);
+        return n == null ? 0 : n.get();
+    }
+
+    // count calls on connections of data source
+    DataSource countingDataSource(DataSource ds) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            Object ret = invoke(ds, method, args);
+            if (ret instanceof Connection con) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (p, m, a) -> {
+                    this.calls.computeIfAbsent(m.getName(), k -> new AtomicInteger()).incrementAndGet();
+                    return invoke(con, m, a);
+                });
+            }
+            return ret;
+        });
+    }
+
+    static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tripleyuan.winter.jdbc.without.tx;
+
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.exception.DataAccessException;
+import com.tripleyuan.winter.jdbc.JdbcTemplate;
+import com.tripleyuan.winter.jdbc.JdbcTestBase;
+import com.tripleyuan.winter.jdbc.ResultSetExtractor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryStreamTest extends JdbcTestBase {
+
+    @Test
+    public void queryForStream() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            HikariDataSource dataSource = (HikariDataSource) ctx.getBean(DataSource.class);
+            insertUsers(jdbcTemplate, 500);
+            jdbcTemplate.setFetchSize(50);
+
+            // stream holds connection until closed:
+            try (Stream<User> users = jdbcTemplate.queryForStream("SELECT * FROM users WHERE age >= ?", User.class, 100)) {
+                assertEquals(1, dataSource.getHikariPoolMXBean().getActiveConnections());
+                assertEquals(400, users.filter(u -> u.theAge % 2 == 0).count() * 2);
+            }
+            assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+
+            // closed before exhausted:
+            Stream<String> names = jdbcTemplate.queryForStream("SELECT name FROM users ORDER BY id", (rs, rowNum) -> rs.getString(1));
+            Iterator<String> it = names.iterator();
+            assertEquals("User-0", it.next());
+            assertEquals("User-1", it.next());
+            names.close();
+            assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+            assertThrows(DataAccessException.class, it::next);
+
+            // invalid sql releases connection:
+            assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForStream("SELECT * FROM missing", User.class));
+            assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+        }
+    }
+
+    @Test
+    public void queryWithExtractorAndCallback() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            insertUsers(jdbcTemplate, 10);
+
+            long sum = jdbcTemplate.query("SELECT age FROM users WHERE id <= ?", (ResultSetExtractor<Long>) rs -> {
+                long n = 0;
+                while (rs.next()) {
+                    n += rs.getLong(1);
+                }
+                return n;
+            }, 3);
+            assertEquals(0 + 1 + 2, sum);
+
+            List<String> names = new ArrayList<>();
+            jdbcTemplate.query("SELECT name FROM users WHERE age > ? ORDER BY id", rs -> {
+                names.add(rs.getString(1));
+            }, 7);
+            assertEquals(List.of("User-8", "User-9"), names);
+        }
+    }
+
+    void insertUsers(JdbcTemplate jdbcTemplate, int n) {
+        jdbcTemplate.update(CREATE_USER);
+        jdbcTemplate.batchUpdate(INSERT_USER, IntStream.range(0, n).boxed().toList(), (ps, i) -> {
+            ps.setString(1, "User-" + i);
+            ps.setInt(2, i);
+        });
+    }
+}
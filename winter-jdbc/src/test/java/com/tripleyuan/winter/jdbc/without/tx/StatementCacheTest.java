@@ -0,0 +1,58 @@
+package com.tripleyuan.winter.jdbc.without.tx;
+
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.exception.DataAccessException;
+import com.tripleyuan.winter.jdbc.JdbcTemplate;
+import com.tripleyuan.winter.jdbc.JdbcTestBase;
+import com.tripleyuan.winter.jdbc.StatementCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCacheTest extends JdbcTestBase {
+
+    @Test
+    public void reuseStatements() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.setStatementCacheSize(2);
+            StatementCache cache = jdbcTemplate.getStatementCache();
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.updateAndReturnGeneratedKey(INSERT_USER, "Bob", 12);
+            jdbcTemplate.updateAndReturnGeneratedKey(INSERT_USER, "Alice", 13);
+            assertEquals(1, cache.getHitCount());
+            assertEquals(2, cache.getMissCount());
+
+            // reused across pooled connections with cleared parameters:
+            for (int i = 0; i < 10; i++) {
+                assertEquals("Alice", jdbcTemplate.queryForObject(SELECT_USER_NAME, String.class, 2));
+            }
+            assertEquals(10, cache.getHitCount());
+            assertEquals(3, cache.getMissCount());
+            // CREATE_USER is evicted:
+            assertEquals(1, cache.getEvictionCount());
+            assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForObject(SELECT_USER_NAME, String.class));
+
+            // evict least recently used INSERT_USER:
+            jdbcTemplate.queryForObject(SELECT_USER_AGE, Integer.class, 1);
+            assertEquals(2, cache.getEvictionCount());
+            jdbcTemplate.queryForObject(SELECT_USER_NAME, String.class, 1);
+            jdbcTemplate.updateAndReturnGeneratedKey(INSERT_USER, "Tom", 14);
+            assertEquals(3, cache.getEvictionCount());
+            assertEquals(12, cache.getHitCount());
+            assertEquals(5, cache.getMissCount());
+        }
+    }
+
+    @Test
+    public void disabled() {
+        try (var ctx = new AnnotationConfigApplicationContext(JdbcWithoutTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.setStatementCacheSize(0);
+            assertNull(jdbcTemplate.getStatementCache());
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.update(INSERT_USER, "Bob", 12);
+            assertEquals(12, jdbcTemplate.queryForObject(SELECT_USER_AGE, Integer.class, 1));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.tripleyuan.winter.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Invoke handler method by async executor instead of container thread, e.g. handler which blocks on JDBC.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Async {
+
+}
@@ -0,0 +1,12 @@
+package com.tripleyuan.winter.annotation;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PatchMapping {
+
+    String value();
+
+}
@@ -0,0 +1,15 @@
+package com.tripleyuan.winter.annotation;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestMapping {
+
+    String value();
+
+    // map to GET, POST, PUT, PATCH and DELETE if empty
+    RequestMethod[] method() default {};
+
+}
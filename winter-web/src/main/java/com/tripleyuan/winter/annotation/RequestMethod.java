@@ -0,0 +1,7 @@
+package com.tripleyuan.winter.annotation;
+
+public enum RequestMethod {
+
+    GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS, TRACE
+
+}
@@ -1,14 +1,22 @@
 package com.tripleyuan.winter.utils;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 
 import java.io.*;
+import java.lang.reflect.Type;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 public class JsonUtils {
@@ -18,6 +26,13 @@ public class JsonUtils {
      */
     public static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
 
+    // write value by its runtime type, flush is left to caller. Rebuilt by accelerate(), as writer keeps serializer
+    // factory of the time it is created
+    private static volatile ObjectWriter dynamicWriter = createDynamicWriter();
+
+    // flush every n elements when writing json array from Iterator
+    public static final int ARRAY_FLUSH_SIZE = 1000;
+
     private static ObjectMapper createObjectMapper() {
         final ObjectMapper mapper = new ObjectMapper();
         mapper.setSerializationInclusion(JsonInclude.Include.ALWAYS);
@@ -28,6 +43,20 @@ public class JsonUtils {
         return mapper;
     }
 
+    /**
+     * Register Blackbird module, which accesses properties by generated lambdas instead of reflection. Readers and
+     * writers created before are not affected, so call it before any json is processed.
+     */
+    public static void accelerate() {
+        // duplicate registration is ignored by ObjectMapper
+        OBJECT_MAPPER.registerModule(new BlackbirdModule());
+        dynamicWriter = createDynamicWriter();
+    }
+
+    private static ObjectWriter createDynamicWriter() {
+        return OBJECT_MAPPER.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
     public static String writeJson(Object obj) {
         try {
             return OBJECT_MAPPER.writeValueAsString(obj);
@@ -52,6 +81,67 @@ public class JsonUtils {
         }
     }
 
+    /**
+     * Create UTF-8 generator which does not close the output, e.g. ServletOutputStream. Open arrays and objects are
+     * not closed by close(), so output is left incomplete if writing fails, instead of a valid but truncated json.
+     */
+    public static JsonGenerator createGenerator(OutputStream output) throws IOException {
+        JsonGenerator gen = OBJECT_MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        return gen;
+    }
+
+    /**
+     * Write elements as json array one by one, so elements are not required in memory at the same time.
+     */
+    public static void writeJsonArray(JsonGenerator gen, Iterator<?> it, TypedWriter writer) throws IOException {
+        gen.writeStartArray();
+        int n = 0;
+        while (it.hasNext()) {
+            writer.writeValue(gen, it.next());
+            if (++n % ARRAY_FLUSH_SIZE == 0) {
+                gen.flush();
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Create writer bound to declared type, e.g. return type of handler method.
+     */
+    public static TypedWriter writerFor(Type type) {
+        return writerFor(OBJECT_MAPPER.constructType(type));
+    }
+
+    public static TypedWriter writerFor(JavaType type) {
+        return new TypedWriter(type, OBJECT_MAPPER.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+    }
+
+    /**
+     * Create reader bound to declared type, generic type such as List&lt;Order&gt; is kept.
+     */
+    public static ObjectReader readerFor(Type type) {
+        return OBJECT_MAPPER.readerFor(OBJECT_MAPPER.constructType(type));
+    }
+
+    public static <T> T readJson(Reader reader, ObjectReader objectReader) {
+        try {
+            return objectReader.readValue(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // parse UTF-8 bytes directly, without decoding to chars first
+    public static <T> T readJson(byte[] data, int offset, int length, ObjectReader objectReader) {
+        try {
+            return objectReader.readValue(data, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public static <T> T readJson(String str, Class<T> clazz) {
         try {
             return OBJECT_MAPPER.readValue(str, clazz);
@@ -108,6 +198,34 @@ public class JsonUtils {
         }
     }
 
+    /**
+     * ObjectWriter bound to declared type, so serializer is not looked up on each write. Serializer of declared type
+     * would drop properties of subclass, so value of other class is written by its runtime type.
+     */
+    public static class TypedWriter {
+
+        private final JavaType type;
+        private final ObjectWriter writer;
+
+        TypedWriter(JavaType type, ObjectWriter writer) {
+            this.type = type;
+            this.writer = writer;
+        }
+
+        public JavaType getType() {
+            return this.type;
+        }
+
+        public void writeValue(JsonGenerator gen, Object value) throws IOException {
+            // container serializer handles runtime type of elements itself
+            if (value == null || this.type.isContainerType() || value.getClass() == this.type.getRawClass()) {
+                this.writer.writeValue(gen, value);
+            } else {
+                dynamicWriter.writeValue(gen, value);
+            }
+        }
+    }
+
     public static Map<String, Object> readJsonAsMap(String str) {
         try {
             return OBJECT_MAPPER.readValue(str, new TypeReference<HashMap<String, Object>>() {
@@ -1,7 +1,12 @@
 package com.tripleyuan.winter.utils;
 
 import jakarta.servlet.ServletException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Pattern;
 
 public class PathUtils {
@@ -13,4 +18,82 @@ public class PathUtils {
         }
         return Pattern.compile("^" + regPath + "$");
     }
+
+    /**
+     * Split path by '/', keep empty segments: "/a/{b}/" => ["", "a", "{b}", ""]
+     */
+    public static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = path.indexOf('/', start)) >= 0) {
+            segments.add(path.substring(start, end));
+            start = end + 1;
+        }
+        segments.add(path.substring(start));
+        return segments;
+    }
+
+    /**
+     * Get variable names in order: "/{user}/posts/{id}.json" => ["user", "id"]
+     */
+    public static List<String> getVariables(String path) throws ServletException {
+        List<String> variables = new ArrayList<>();
+        for (String s : split(path)) {
+            Segment segment = parseSegment(path, s);
+            if (segment.getVariable() != null) {
+                variables.add(segment.getVariable());
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Parse segment of path, which is static text or at most one variable with optional literal prefix and suffix.
+     */
+    public static Segment parseSegment(String path, String segment) throws ServletException {
+        int left = segment.indexOf('{');
+        int right = segment.indexOf('}');
+        if (left < 0 && right < 0) {
+            return new Segment(segment, null, "");
+        }
+        if (left < 0 || right < left || segment.indexOf('{', left + 1) >= 0 || segment.indexOf('}', right + 1) >= 0) {
+            throw new ServletException("Invalid path: " + path);
+        }
+        String variable = segment.substring(left + 1, right);
+        if (!isValidVariable(variable)) {
+            throw new ServletException("Invalid path: " + path);
+        }
+        return new Segment(segment.substring(0, left), variable, segment.substring(right + 1));
+    }
+
+    // [a-zA-Z][a-zA-Z0-9]*
+    private static boolean isValidVariable(String name) {
+        if (name.isEmpty() || !isLetter(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!isLetter(c) && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    public static class Segment {
+        // static text, or literal before variable
+        private String prefix;
+        // variable name, null if static
+        private String variable;
+        // literal after variable
+        private String suffix;
+    }
 }
@@ -12,10 +12,13 @@ import jakarta.servlet.ServletRegistration;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.FileNotFoundException;
+import java.lang.reflect.Method;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public class WebUtils {
@@ -95,6 +98,36 @@ public class WebUtils {
         ServletRegistration.Dynamic reg = servletContext.addServlet("dispatcherServlet", dispatcherServlet);
         reg.addMapping("/");
         reg.setLoadOnStartup(0);
+        reg.setAsyncSupported(true);
+    }
+
+    /**
+     * Create executor of @Async handlers: virtual thread per task on JDK 21+ if enabled, otherwise bounded thread pool.
+     */
+    public static ExecutorService createAsyncExecutor(PropertyResolver propertyResolver) {
+        if (propertyResolver.getProperty("${winter.web.async.virtual-threads:true}", boolean.class)) {
+            try {
+                // compiled for JDK 17
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                ExecutorService executor = (ExecutorService) method.invoke(null);
+                log.info("use virtual threads for async handlers.");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                log.debug("virtual threads are not available: {}", e.toString());
+            }
+        }
+        int poolSize = propertyResolver.getProperty("${winter.web.async.pool-size:200}", int.class);
+        int queueCapacity = propertyResolver.getProperty("${winter.web.async.queue-capacity:1000}", int.class);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "winter-async-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        log.info("use thread pool of {} threads for async handlers.", poolSize);
+        return executor;
     }
 
     public static void registerFilters(ServletContext servletContext, ApplicationContext applicationContext) {
@@ -103,6 +136,7 @@ public class WebUtils {
             FilterRegistration.Dynamic reg = servletContext.addFilter(filterRegBean.getName(), filterRegBean.getFilter());
             String[] urlPatterns = filterRegBean.getUrlPatterns().toArray(new String[0]);
             reg.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, urlPatterns);
+            reg.setAsyncSupported(filterRegBean.isAsyncSupported());
         }
     }
 }
@@ -4,6 +4,7 @@ import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
 import com.tripleyuan.winter.context.ApplicationContext;
 import com.tripleyuan.winter.exception.NestedRuntimeException;
 import com.tripleyuan.winter.io.PropertyResolver;
+import com.tripleyuan.winter.utils.JsonUtils;
 import com.tripleyuan.winter.utils.WebUtils;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletContextEvent;
@@ -27,6 +28,11 @@ public class ContextLoaderListener implements ServletContextListener {
         servletContext.setRequestCharacterEncoding(encoding);
         servletContext.setResponseCharacterEncoding(encoding);
 
+        // accelerate json before any bean uses it
+        if (propertyResolver.getProperty("${winter.web.json.accelerated:false}", boolean.class)) {
+            JsonUtils.accelerate();
+        }
+
         // create ApplicationContext
         String configClass = servletContext.getInitParameter("configuration");
         ApplicationContext applicationContext = createApplicationContext(configClass, propertyResolver);
@@ -0,0 +1,16 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.io.PropertyResolver;
+
+/**
+ * Bean which registers converters of custom types for @PathVariable and @RequestParam, called before controllers are
+ * mapped. Example:
+ *
+ * <pre>
+ * propertyResolver.registerConverter(Money.class, Money::parse);
+ * </pre>
+ */
+public interface ConverterRegistrar {
+
+    void registerConverters(PropertyResolver propertyResolver);
+}
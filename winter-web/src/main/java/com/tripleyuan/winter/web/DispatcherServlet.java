@@ -1,5 +1,9 @@
 package com.tripleyuan.winter.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.tripleyuan.winter.annotation.*;
 import com.tripleyuan.winter.context.ApplicationContext;
 import com.tripleyuan.winter.context.BeanDefinition;
@@ -7,10 +11,14 @@ import com.tripleyuan.winter.context.ConfigurableApplicationContext;
 import com.tripleyuan.winter.exception.ErrorResponseException;
 import com.tripleyuan.winter.exception.NestedRuntimeException;
 import com.tripleyuan.winter.exception.ServerErrorException;
+import com.tripleyuan.winter.exception.ServerWebInputException;
 import com.tripleyuan.winter.io.PropertyResolver;
 import com.tripleyuan.winter.utils.JsonUtils;
 import com.tripleyuan.winter.utils.PathUtils;
-import com.tripleyuan.winter.utils.StreamUtils;
+import com.tripleyuan.winter.utils.WebUtils;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
@@ -23,20 +31,17 @@ import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintWriter;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static com.tripleyuan.winter.utils.ClassUtils.getAnnotation;
 import static com.tripleyuan.winter.utils.WebUtils.DEFAULT_PARAM_VALUE;
@@ -45,30 +50,70 @@ import static com.tripleyuan.winter.utils.WebUtils.DEFAULT_PARAM_VALUE;
 public class DispatcherServlet extends HttpServlet {
 
     private ApplicationContext applicationContext;
+    private PropertyResolver propertyResolver;
     private ViewResolver viewResolver;
 
     // the path of static resource
     private String resourcePath;
     // site favicon
     private String faviconPath;
+    private StaticResourceHandler resourceHandler;
 
-    private List<Dispatcher> getDispatchers = new ArrayList<>();
-    private List<Dispatcher> postDispatchers = new ArrayList<>();
+    // executor of @Async handlers, and timeout (ms) of async request
+    private ExecutorService asyncExecutor;
+    private long asyncTimeout;
+    // heartbeat of SseEmitter
+    private ScheduledExecutorService streamScheduler;
+    private long heartbeatInterval;
+    // read @RequestBody by non-blocking I/O, null if disabled
+    private RequestBodyReader bodyReader;
+
+    // methods mapped by @RequestMapping without method specified
+    static final RequestMethod[] DEFAULT_REQUEST_METHODS = {
+            RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE
+    };
+
+    // url pattern -> http method -> dispatcher
+    private Router<Map<String, Dispatcher>> router = new Router<>();
 
     public DispatcherServlet(ApplicationContext applicationContext, PropertyResolver propertyResolver) {
         this.applicationContext = applicationContext;
-        // todo
-        // this.viewResolver = applicationContext.getBean(ViewResolver.class);
+        this.propertyResolver = propertyResolver;
+        // the unique or @Primary one, MVC views cannot be rendered if none
+        if (!applicationContext.getBeans(ViewResolver.class).isEmpty()) {
+            this.viewResolver = applicationContext.getBean(ViewResolver.class);
+        }
         this.resourcePath = propertyResolver.getProperty("${winter.web.static-path:/static}");
         this.faviconPath = propertyResolver.getProperty("${winter.web.favicon-path:/favicon.ico}");
         if (!this.resourcePath.endsWith("/")) {
             this.resourcePath = this.resourcePath + "/";
         }
+        this.resourceHandler = new StaticResourceHandler(propertyResolver.getProperty("${winter.web.static-cache-control:no-cache}"),
+                propertyResolver.getProperty("${winter.web.static-gzip-cache-size:16777216}", long.class));
+        this.asyncExecutor = WebUtils.createAsyncExecutor(propertyResolver);
+        this.asyncTimeout = propertyResolver.getProperty("${winter.web.async.timeout:30000}", long.class);
+        if (propertyResolver.getProperty("${winter.web.body.non-blocking:false}", boolean.class)) {
+            this.bodyReader = new RequestBodyReader(propertyResolver.getProperty("${winter.web.body.max-size:10485760}", long.class),
+                    this.asyncTimeout, propertyResolver.getProperty("${winter.web.body.pooled-buffers:256}", int.class));
+        }
+        this.heartbeatInterval = propertyResolver.getProperty("${winter.web.sse.heartbeat-interval:15000}", long.class);
+        this.streamScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "winter-stream-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     @Override
     public void init() throws ServletException {
         log.info("Init {}", getClass().getName());
+        if (this.viewResolver != null) {
+            this.viewResolver.init();
+        }
+        // register custom converters before resolving handler parameters
+        for (ConverterRegistrar registrar : applicationContext.getBeans(ConverterRegistrar.class)) {
+            registrar.registerConverters(this.propertyResolver);
+        }
         // scan @Controller and @RestController
         ConfigurableApplicationContext cac = (ConfigurableApplicationContext) applicationContext;
         for (BeanDefinition def : cac.findBeanDefinitions(Object.class)) {
@@ -91,6 +136,8 @@ public class DispatcherServlet extends HttpServlet {
 
     @Override
     public void destroy() {
+        this.asyncExecutor.shutdown();
+        this.streamScheduler.shutdown();
         this.applicationContext.close();
     }
 
@@ -103,14 +150,33 @@ public class DispatcherServlet extends HttpServlet {
         for (Method method : clazz.getDeclaredMethods()) {
             GetMapping getMapping = method.getAnnotation(GetMapping.class);
             if (getMapping != null) {
-                checkMethod(method);
-                this.getDispatchers.add(new Dispatcher(isRest, bean, method, getMapping.value()));
+                addDispatcher(isRest, bean, method, getMapping.value(), RequestMethod.GET);
             }
 
             PostMapping postMapping = method.getAnnotation(PostMapping.class);
             if (postMapping != null) {
-                checkMethod(method);
-                this.postDispatchers.add(new Dispatcher(isRest, bean, method, postMapping.value()));
+                addDispatcher(isRest, bean, method, postMapping.value(), RequestMethod.POST);
+            }
+
+            PutMapping putMapping = method.getAnnotation(PutMapping.class);
+            if (putMapping != null) {
+                addDispatcher(isRest, bean, method, putMapping.value(), RequestMethod.PUT);
+            }
+
+            PatchMapping patchMapping = method.getAnnotation(PatchMapping.class);
+            if (patchMapping != null) {
+                addDispatcher(isRest, bean, method, patchMapping.value(), RequestMethod.PATCH);
+            }
+
+            DeleteMapping deleteMapping = method.getAnnotation(DeleteMapping.class);
+            if (deleteMapping != null) {
+                addDispatcher(isRest, bean, method, deleteMapping.value(), RequestMethod.DELETE);
+            }
+
+            RequestMapping requestMapping = method.getAnnotation(RequestMapping.class);
+            if (requestMapping != null) {
+                RequestMethod[] methods = requestMapping.method().length == 0 ? DEFAULT_REQUEST_METHODS : requestMapping.method();
+                addDispatcher(isRest, bean, method, requestMapping.value(), methods);
             }
         }
 
@@ -120,6 +186,18 @@ public class DispatcherServlet extends HttpServlet {
         }
     }
 
+    private void addDispatcher(boolean isRest, Object bean, Method method, String urlPattern, RequestMethod... requestMethods)
+            throws ServletException {
+        checkMethod(method);
+        Dispatcher dispatcher = new Dispatcher(isRest, bean, method, urlPattern, this.propertyResolver);
+        Map<String, Dispatcher> dispatchers = this.router.computeIfAbsent(urlPattern, HashMap::new);
+        for (RequestMethod requestMethod : requestMethods) {
+            if (dispatchers.putIfAbsent(requestMethod.name(), dispatcher) != null) {
+                throw new ServletException("Duplicate mapping " + requestMethod + " " + urlPattern + " at method: " + method);
+            }
+        }
+    }
+
     private void checkMethod(Method method) throws ServletException {
         int mod = method.getModifiers();
         if (Modifier.isStatic(mod)) {
@@ -130,48 +208,39 @@ public class DispatcherServlet extends HttpServlet {
 
 
     @Override
-    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        String uri = req.getRequestURI();
-        if (uri.equals(faviconPath) || uri.startsWith(resourcePath)) {
-            doResource(uri, req, resp);
-        } else {
-            doService(req, resp, this.getDispatchers);
-        }
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        dispatch(req.getMethod(), req, resp);
     }
 
+    // called by HttpServlet.doHead() for HEAD request without HEAD mapping
     @Override
-    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        doService(req, resp, this.postDispatchers);
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        dispatch("GET", req, resp);
     }
 
-    private void doResource(String uri, HttpServletRequest req, HttpServletResponse resp)
-            throws ServletException, IOException {
-        ServletContext servletContext = req.getServletContext();
-        try (InputStream in = servletContext.getResourceAsStream(uri)) {
-            if (in == null) {
-                resp.sendError(404, "Not Found");
-                return;
-            }
-            // guess content type
-            String file = uri;
-            int i = file.lastIndexOf("/");
-            if (i > -1) {
-                file = file.substring(i + 1);
-            }
-            String mimeType = servletContext.getMimeType(file);
-            if (mimeType == null) {
-                mimeType = "application/octet-stream";
+    private void dispatch(String method, HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String uri = req.getRequestURI();
+        if (uri.equals(faviconPath) || uri.startsWith(resourcePath)) {
+            if (method.equals("GET")) {
+                this.resourceHandler.handle(uri, req, resp);
+            } else if (method.equals("HEAD")) {
+                super.doHead(req, resp);
+            } else {
+                resp.setHeader("Allow", "GET, HEAD, OPTIONS");
+                if (!method.equals("OPTIONS")) {
+                    resp.sendError(405, "Method Not Allowed");
+                }
             }
-            resp.setContentType(mimeType);
-            StreamUtils.copy(in, resp.getOutputStream());
+        } else {
+            doService(method, req, resp);
         }
     }
 
-    private void doService(HttpServletRequest req, HttpServletResponse resp, List<Dispatcher> dispatchers)
+    private void doService(String method, HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
         String url = req.getRequestURI();
         try {
-            doService(url, req, resp, dispatchers);
+            doService(method, url, req, resp);
         } catch (ErrorResponseException e) {
             log.warn("process request failed with status {} : {}", e.statusCode, url, e);
             if (!resp.isCommitted()) {
@@ -187,17 +256,183 @@ public class DispatcherServlet extends HttpServlet {
         }
     }
 
-    private void doService(String url, HttpServletRequest req, HttpServletResponse resp, List<Dispatcher> dispatchers)
+    private void doService(String method, String url, HttpServletRequest req, HttpServletResponse resp)
             throws Exception {
-        for (Dispatcher dispatcher : dispatchers) {
-            Result result = dispatcher.process(url, req, resp);
-            if (result.processed) {
-                handleResult(url, req, resp, dispatcher, result);
+        Router.Match<Map<String, Dispatcher>> match = this.router.match(url);
+        if (match == null) {
+            if (method.equals("OPTIONS") && url.equals("*")) {
+                resp.setHeader("Allow", getAllowedMethods(null));
                 return;
             }
+            // No handler found
+            resp.sendError(404, "Not Found");
+            return;
+        }
+        Map<String, Dispatcher> dispatchers = match.getValue();
+        Dispatcher dispatcher = dispatchers.get(method);
+        if (dispatcher == null) {
+            if (method.equals("HEAD") && dispatchers.containsKey("GET")) {
+                // answer HEAD by GET handler
+                super.doHead(req, resp);
+            } else if (method.equals("OPTIONS")) {
+                resp.setHeader("Allow", getAllowedMethods(dispatchers));
+            } else {
+                resp.setHeader("Allow", getAllowedMethods(dispatchers));
+                resp.sendError(405, "Method Not Allowed");
+            }
+            return;
+        }
+        if (this.bodyReader != null && dispatcher.isReadBody() && req.isAsyncSupported() && this.bodyReader.read(req, resp)) {
+            // dispatched again when body is read
+            return;
+        }
+        if (dispatcher.isAsync()) {
+            doAsync(url, match.getVariables(), req, resp, dispatcher);
+            return;
+        }
+        Result result = dispatcher.process(match.getVariables(), req, resp);
+        if (dispatcher.isStreaming()) {
+            ResponseStream stream = (ResponseStream) result.getReturnObj();
+            if (stream == null) {
+                throw new ServerErrorException("Handler returns null ResponseStream: " + url);
+            }
+            // written by stream after handler returned
+            stream.start(req, resp, this.asyncTimeout, this.streamScheduler, this.heartbeatInterval);
+            return;
         }
-        // No handler found
-        resp.sendError(404, "Not Found");
+        handleResult(url, req, resp, dispatcher, result);
+    }
+
+    // release container thread while @Async handler is running or CompletionStage is not completed
+    private void doAsync(String url, String[] pathValues, HttpServletRequest req, HttpServletResponse resp, Dispatcher dispatcher)
+            throws Exception {
+        if (!req.isAsyncSupported()) {
+            // e.g. a filter in chain does not support async, wait in container thread
+            Object retObj = dispatcher.process(pathValues, req, resp).getReturnObj();
+            if (retObj instanceof CompletionStage) {
+                try {
+                    retObj = ((CompletionStage<?>) retObj).toCompletableFuture().get();
+                } catch (ExecutionException e) {
+                    throw unwrapAsyncException(e);
+                }
+            }
+            handleResult(url, req, resp, dispatcher, new Result(retObj));
+            return;
+        }
+
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(this.asyncTimeout);
+        // completed by result or timeout, whichever first
+        AtomicBoolean done = new AtomicBoolean(false);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (done.compareAndSet(false, true)) {
+                    log.warn("async request timeout: {}", url);
+                    resp.sendError(503, "Service Unavailable");
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                done.set(true);
+                log.warn("async request failed: {}", url, event.getThrowable());
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                Object retObj = dispatcher.process(pathValues, req, resp).getReturnObj();
+                if (retObj instanceof CompletionStage) {
+                    ((CompletionStage<?>) retObj).whenComplete((value, e) -> {
+                        if (e != null) {
+                            future.completeExceptionally(e);
+                        } else {
+                            future.complete(value);
+                        }
+                    });
+                } else {
+                    future.complete(retObj);
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        };
+        if (dispatcher.isAsyncInvoke()) {
+            try {
+                this.asyncExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(new ErrorResponseException(503, "Too many async requests.", e));
+            }
+        } else {
+            task.run();
+        }
+
+        future.whenComplete((retObj, t) -> {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (t != null) {
+                    throw unwrapAsyncException(t);
+                }
+                handleResult(url, req, resp, dispatcher, new Result(retObj));
+            } catch (ErrorResponseException e) {
+                log.warn("process request failed with status {} : {}", e.statusCode, url, e);
+                sendAsyncError(resp, e.statusCode);
+            } catch (Exception e) {
+                // cannot throw to container
+                log.warn("process request failed: {}", url, e);
+                sendAsyncError(resp, 500);
+            } finally {
+                asyncContext.complete();
+            }
+        });
+    }
+
+    private Exception unwrapAsyncException(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        return new ServerErrorException(t);
+    }
+
+    private void sendAsyncError(HttpServletResponse resp, int statusCode) {
+        if (!resp.isCommitted()) {
+            try {
+                resp.resetBuffer();
+                resp.sendError(statusCode);
+            } catch (IOException e) {
+                log.warn("send error failed.", e);
+            }
+        }
+    }
+
+    // allowed methods of url, or all methods except TRACE if dispatchers is null
+    private String getAllowedMethods(Map<String, Dispatcher> dispatchers) {
+        StringJoiner sj = new StringJoiner(", ");
+        for (RequestMethod m : RequestMethod.values()) {
+            String name = m.name();
+            boolean allowed = dispatchers == null ? m != RequestMethod.TRACE
+                    : dispatchers.containsKey(name) || m == RequestMethod.OPTIONS || (m == RequestMethod.HEAD && dispatchers.containsKey("GET"));
+            if (allowed) {
+                sj.add(name);
+            }
+        }
+        return sj.toString();
     }
 
     private void handleResult(String uri, HttpServletRequest req, HttpServletResponse resp,
@@ -222,12 +457,59 @@ public class DispatcherServlet extends HttpServlet {
                     throw new ServletException("Unable to process REST Result when handle url: " + uri);
                 }
             } else if (!dispatcher.isVoid()) {
-                // output json
-                PrintWriter pw = resp.getWriter();
-                JsonUtils.writeJson(pw, retObj);
+                // output json as UTF-8 bytes, Iterator and Stream are written as array element by element
+                JsonUtils.TypedWriter writer = dispatcher.getJsonWriter();
+                try (JsonGenerator gen = JsonUtils.createGenerator(resp.getOutputStream())) {
+                    if (retObj instanceof Stream) {
+                        try (Stream<?> stream = (Stream<?>) retObj) {
+                            JsonUtils.writeJsonArray(gen, stream.iterator(), writer);
+                        }
+                    } else if (retObj instanceof Iterator) {
+                        JsonUtils.writeJsonArray(gen, (Iterator<?>) retObj, writer);
+                    } else {
+                        writer.writeValue(gen, retObj);
+                    }
+                }
             }
         } else {
-            // todo process MVC
+            // process MVC
+            if (!resp.isCommitted()) {
+                resp.setContentType("text/html");
+            }
+            Object retObj = result.getReturnObj();
+            if (retObj instanceof String) {
+                String s = (String) retObj;
+                if (dispatcher.isResponseBody()) {
+                    PrintWriter pw = resp.getWriter();
+                    pw.write(s);
+                    pw.flush();
+                } else if (s.startsWith("redirect:")) {
+                    resp.sendRedirect(s.substring(9));
+                } else {
+                    throw new ServletException("Unable to process String result when handle url: " + uri);
+                }
+            } else if (retObj instanceof byte[]) {
+                if (!dispatcher.isResponseBody()) {
+                    throw new ServletException("Unable to process byte[] result when handle url: " + uri);
+                }
+                ServletOutputStream out = resp.getOutputStream();
+                out.write((byte[]) retObj);
+                out.flush();
+            } else if (retObj instanceof ModelAndView) {
+                ModelAndView mv = (ModelAndView) retObj;
+                String view = mv.getViewName();
+                if (view.startsWith("redirect:")) {
+                    resp.sendRedirect(view.substring(9));
+                } else {
+                    if (this.viewResolver == null) {
+                        throw new ServletException("No ViewResolver to render view '" + view + "' when handle url: " + uri);
+                    }
+                    resp.setStatus(mv.getStatus());
+                    this.viewResolver.render(view, mv.getModel(), req, resp);
+                }
+            } else if (!dispatcher.isVoid() && retObj != null) {
+                throw new ServletException("Unable to process " + retObj.getClass().getName() + " result when handle url: " + uri);
+            }
         }
     }
 
@@ -235,30 +517,57 @@ public class DispatcherServlet extends HttpServlet {
     @ToString
     @Getter
     static class Dispatcher {
-        static final Result NOT_PROCESSED = new Result(false, null);
 
         private boolean isRest;
         private boolean isResponseBody;
         private boolean isVoid;
-        private Pattern urlPattern;
+        // returns CompletionStage or annotated by @Async
+        private boolean isAsync;
+        // invoked by async executor
+        private boolean isAsyncInvoke;
+        // returns ResponseStream, e.g. SseEmitter
+        private boolean isStreaming;
+        // has @RequestBody parameter
+        private boolean isReadBody;
+        private String urlPattern;
+        // names of path variables, in order of url pattern
+        private List<String> pathVariables;
         private Object controller;
         private Method handlerMethod;
+        // calls handler method on controller
+        private final HandlerInvoker handlerInvoker;
+        // json writer of return value, or of elements if return type is Stream / Iterator
+        private JsonUtils.TypedWriter jsonWriter;
         private Param[] methodParameters;
 
-        public Dispatcher(boolean isRest, Object controller, Method method, String urlPattern) throws ServletException {
+        public Dispatcher(boolean isRest, Object controller, Method method, String urlPattern, PropertyResolver propertyResolver)
+                throws ServletException {
             this.isRest = isRest;
             this.isResponseBody = method.getAnnotation(ResponseBody.class) != null;
-            this.isVoid = method.getReturnType() == void.class;
-            this.urlPattern = PathUtils.compile(urlPattern);
+            boolean returnsStage = CompletionStage.class.isAssignableFrom(method.getReturnType());
+            this.isAsyncInvoke = method.getAnnotation(Async.class) != null;
+            this.isAsync = returnsStage || this.isAsyncInvoke;
+            this.isStreaming = ResponseStream.class.isAssignableFrom(method.getReturnType());
+            if (this.isStreaming && this.isAsyncInvoke) {
+                throw new ServletException("@Async is not supported by method returns ResponseStream: " + method);
+            }
+            this.isVoid = method.getReturnType() == void.class || (returnsStage && getJsonType(method).hasRawClass(Void.class));
+            this.urlPattern = urlPattern;
+            this.pathVariables = PathUtils.getVariables(urlPattern);
             this.controller = controller;
             this.handlerMethod = method;
+            this.handlerInvoker = HandlerInvoker.of(controller, method);
+            if (isRest && !this.isResponseBody && !this.isVoid && !this.isStreaming) {
+                this.jsonWriter = JsonUtils.writerFor(getJsonType(method));
+            }
 
             // resolve method parameters
             Parameter[] parameters = method.getParameters();
             Annotation[][] paramAnnos = method.getParameterAnnotations();
             this.methodParameters = new Param[parameters.length];
             for (int i = 0; i < parameters.length; i++) {
-                this.methodParameters[i] = new Param(method, parameters[i], paramAnnos[i]);
+                this.methodParameters[i] = new Param(method, parameters[i], paramAnnos[i], urlPattern, this.pathVariables, propertyResolver);
+                this.isReadBody = this.isReadBody || this.methodParameters[i].paramType == ParamType.REQUEST_BODY;
             }
 
             log.info("Mapping {} to Controller {}.{}", urlPattern, controller.getClass().getName(), method.getName());
@@ -267,97 +576,41 @@ public class DispatcherServlet extends HttpServlet {
             }
         }
 
-        public Result process(String uri, HttpServletRequest req, HttpServletResponse resp) throws Exception {
-            Matcher matcher = urlPattern.matcher(uri);
-            if (!matcher.matches()) {
-                return NOT_PROCESSED;
-            }
-
-            // resolve values for each parameter
+        // pathValues: values of path variables matched by router
+        public Result process(String[] pathValues, HttpServletRequest req, HttpServletResponse resp) throws Exception {
+            // resolve values for each parameter by resolvers prepared at init
             Object[] args = new Object[methodParameters.length];
-            for (int i = 0; i < methodParameters.length; i++) {
-                Param p = methodParameters[i];
-                switch (p.paramType) {
-                    case PATH_VARIABLE:
-                        String pathStr = matcher.group(p.name);
-                        args[i] = convert(pathStr, p.classType);
-                        break;
-                    case REQUEST_PARAM:
-                        String paramStr = getOrDefault(req, p.name, p.defaultValue);
-                        args[i] = convert(paramStr, p.classType);
-                        break;
-                    case REQUEST_BODY:
-                        BufferedReader reader = req.getReader();
-                        args[i] = JsonUtils.readJson(reader, p.classType);
-                        break;
-                    case SERVLET_VARIABLE:
-                        if (p.classType == HttpServletRequest.class) {
-                            args[i] = req;
-                        } else if (p.classType == HttpServletResponse.class) {
-                            args[i] = resp;
-                        } else if (p.classType == HttpSession.class) {
-                            args[i] = req.getSession();
-                        } else if (p.classType == ServletContext.class) {
-                            args[i] = req.getServletContext();
-                        } else {
-                            throw new ServerErrorException("Could not determine argument type: " + p.classType);
-                        }
-                        break;
-                    default:
-                        throw new ServerErrorException("Unsupported Parameter Type: " + p.paramType);
-                }
-            }
-
-            // invoke handler method
-            Object result = null;
             try {
-                result = this.handlerMethod.invoke(this.controller, args);
-            } catch (InvocationTargetException e) {
-                // why do this?
-                Throwable t = e.getCause();
-                if (t instanceof Exception) {
-                    throw (Exception) t;
+                for (int i = 0; i < methodParameters.length; i++) {
+                    args[i] = methodParameters[i].resolver.resolve(pathValues, req, resp);
                 }
-                throw e;
-            } catch (ReflectiveOperationException e) {
-                throw new ServerErrorException(e);
-            }
-            return new Result(true, result);
-        }
-
-        private String getOrDefault(HttpServletRequest req, String name, String defaultValue) {
-            String value = req.getParameter(name);
-            if (value == null) {
-                if (Objects.equals(defaultValue, DEFAULT_PARAM_VALUE)) {
-                    throw new ServerErrorException("Missing required parameter: " + name);
+            } finally {
+                if (this.isReadBody) {
+                    RequestBodyReader.release(req);
                 }
-                return defaultValue;
             }
-            return value;
+
+            // invoke handler method, exception thrown by handler is not wrapped
+            Object result = this.handlerInvoker.invoke(args);
+            return new Result(result);
         }
 
-        private Object convert(String str, Class<?> classType) {
-            if (classType == String.class) {
-                return str;
-            } else if (classType == boolean.class || classType == Boolean.class) {
-                return Boolean.valueOf(str);
-            } else if (classType == int.class || classType == Integer.class) {
-                return Integer.valueOf(str);
-            } else if (classType == long.class || classType == Long.class) {
-                return Long.valueOf(str);
-            } else if (classType == byte.class || classType == Byte.class) {
-                return Byte.valueOf(str);
-            } else if (classType == short.class || classType == Short.class) {
-                return Short.valueOf(str);
-            } else if (classType == float.class || classType == Float.class) {
-                return Float.valueOf(str);
-            } else if (classType == double.class || classType == Double.class) {
-                return Double.valueOf(str);
-            } else {
-                throw new ServerErrorException("Could not determine argument type: " + classType);
+        static JavaType getJsonType(Method method) {
+            TypeFactory typeFactory = JsonUtils.OBJECT_MAPPER.getTypeFactory();
+            JavaType type = typeFactory.constructType(method.getGenericReturnType());
+            // value of async result
+            if (type.isTypeOrSubTypeOf(CompletionStage.class)) {
+                JavaType[] params = typeFactory.findTypeParameters(type, CompletionStage.class);
+                type = params.length == 1 ? params[0] : typeFactory.constructType(Object.class);
+            }
+            for (Class<?> elements : List.of(Stream.class, Iterator.class)) {
+                if (type.isTypeOrSubTypeOf(elements)) {
+                    JavaType[] params = typeFactory.findTypeParameters(type, elements);
+                    return params.length == 1 ? params[0] : typeFactory.constructType(Object.class);
+                }
             }
+            return type;
         }
-
     }
 
     @ToString
@@ -367,8 +620,14 @@ public class DispatcherServlet extends HttpServlet {
         private ParamType paramType;
         private Class<?> classType;
         private String defaultValue;
-
-        public Param(Method method, Parameter parameter, Annotation[] annotations) throws ServletException {
+        // index in path variables of url pattern
+        private int pathVariableIndex = -1;
+        // resolve argument value of each request, chosen by parameter type at init
+        @ToString.Exclude
+        private ArgumentResolver resolver;
+
+        public Param(Method method, Parameter parameter, Annotation[] annotations, String urlPattern, List<String> pathVariables,
+                     PropertyResolver propertyResolver) throws ServletException {
             PathVariable pathVariable = getAnnotation(annotations, PathVariable.class);
             RequestParam requestParam = getAnnotation(annotations, RequestParam.class);
             RequestBody requestBody = getAnnotation(annotations, RequestBody.class);
@@ -376,7 +635,7 @@ public class DispatcherServlet extends HttpServlet {
             // check, only one type annotation can be present.
             int total = (pathVariable != null ? 1 : 0) + (requestParam != null ? 1 : 0) + (requestBody != null ? 1 : 0);
             if (total > 1) {
-                String message = String.format("Annotation @PathVariable, @RequestParam and @RequestBody cannot be combined at method '%d'",
+                String message = String.format("Annotation @PathVariable, @RequestParam and @RequestBody cannot be combined at method '%s'",
                         method.getName());
                 throw new ServletException(message);
             }
@@ -385,28 +644,79 @@ public class DispatcherServlet extends HttpServlet {
             if (pathVariable != null) {
                 name = pathVariable.value();
                 paramType = ParamType.PATH_VARIABLE;
+                int index = pathVariables.indexOf(name);
+                if (index < 0) {
+                    throw new ServletException("Path variable '" + name + "' not found in url pattern " + urlPattern + " at method: " + method);
+                }
+                this.pathVariableIndex = index;
+                Function<String, ?> converter = getConverter(propertyResolver, method);
+                this.resolver = (pathValues, req, resp) -> converter.apply(pathValues[index]);
             } else if (requestParam != null) {
                 name = requestParam.value();
                 paramType = ParamType.REQUEST_PARAM;
                 defaultValue = requestParam.defaultValue();
+                Function<String, ?> converter = getConverter(propertyResolver, method);
+                String paramName = name;
+                if (DEFAULT_PARAM_VALUE.equals(defaultValue)) {
+                    this.resolver = (pathValues, req, resp) -> {
+                        String value = req.getParameter(paramName);
+                        if (value == null) {
+                            throw new ServerWebInputException("Missing required parameter: " + paramName);
+                        }
+                        return converter.apply(value);
+                    };
+                } else {
+                    String paramDefault = defaultValue;
+                    this.resolver = (pathValues, req, resp) -> {
+                        String value = req.getParameter(paramName);
+                        return converter.apply(value == null ? paramDefault : value);
+                    };
+                }
             } else if (requestBody != null) {
                 this.paramType = ParamType.REQUEST_BODY;
+                // bind generic type, e.g. List<Order>
+                ObjectReader bodyReader = JsonUtils.readerFor(parameter.getParameterizedType());
+                this.resolver = (pathValues, req, resp) -> {
+                    // parse bytes if body is read by RequestBodyReader
+                    RequestBodyReader.Body body = (RequestBodyReader.Body) req.getAttribute(RequestBodyReader.BODY_ATTRIBUTE);
+                    return body != null ? body.parse(bodyReader) : JsonUtils.readJson(req.getReader(), bodyReader);
+                };
             } else {
                 this.paramType = ParamType.SERVLET_VARIABLE;
                 // check servlet variable type:
-                if (this.classType != HttpServletRequest.class && this.classType != HttpServletResponse.class && this.classType != HttpSession.class
-                        && this.classType != ServletContext.class) {
+                if (this.classType == HttpServletRequest.class) {
+                    this.resolver = (pathValues, req, resp) -> req;
+                } else if (this.classType == HttpServletResponse.class) {
+                    this.resolver = (pathValues, req, resp) -> resp;
+                } else if (this.classType == HttpSession.class) {
+                    this.resolver = (pathValues, req, resp) -> req.getSession();
+                } else if (this.classType == ServletContext.class) {
+                    this.resolver = (pathValues, req, resp) -> req.getServletContext();
+                } else {
                     throw new ServerErrorException("(Missing annotation?) Unsupported argument type: " + classType + " at method: " + method);
                 }
             }
         }
+
+        private Function<String, ?> getConverter(PropertyResolver propertyResolver, Method method) throws ServletException {
+            Function<String, ?> converter = propertyResolver.getConverter(this.classType);
+            if (converter == null) {
+                throw new ServletException("Could not determine argument type: " + this.classType + " at method: " + method);
+            }
+            return converter;
+        }
+    }
+
+    @FunctionalInterface
+    interface ArgumentResolver {
+        // pathValues: values of path variables matched by router
+        Object resolve(String[] pathValues, HttpServletRequest req, HttpServletResponse resp) throws Exception;
     }
 
     @Getter
     @AllArgsConstructor
     @ToString
     static class Result {
-        private boolean processed;
         private Object returnObj;
     }
 
@@ -31,4 +31,12 @@ public abstract class FilterRegistrationBean {
 
     public abstract Filter getFilter();
 
+    /**
+     * Whether filter works when request is processed asynchronously (e.g. @Async handler). Filter which post-processes
+     * response after chain.doFilter() returns should not support async, then handlers run in container thread.
+     */
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
 }
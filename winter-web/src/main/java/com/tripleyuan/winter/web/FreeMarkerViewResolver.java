@@ -0,0 +1,99 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.exception.ServerErrorException;
+import freemarker.cache.MruCacheStorage;
+import freemarker.cache.URLTemplateLoader;
+import freemarker.core.HTMLOutputFormat;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import freemarker.template.TemplateNotFoundException;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Render FreeMarker templates under template path of ServletContext.
+ * <p>
+ * Templates are parsed once and cached as compiled Template. In dev mode a cached template is checked against its last
+ * modified time before each rendering and reloaded if changed, otherwise it is never checked again.
+ */
+@Slf4j
+public class FreeMarkerViewResolver implements ViewResolver {
+
+    private final ServletContext servletContext;
+    private final String templatePath;
+    private final String templateEncoding;
+    private final boolean devMode;
+
+    private Configuration config;
+
+    public FreeMarkerViewResolver(ServletContext servletContext, String templatePath, String templateEncoding, boolean devMode) {
+        this.servletContext = servletContext;
+        this.templatePath = templatePath.endsWith("/") ? templatePath : templatePath + "/";
+        this.templateEncoding = templateEncoding;
+        this.devMode = devMode;
+    }
+
+    @Override
+    public void init() {
+        log.info("init {}, set template path: {}, dev mode: {}", getClass().getSimpleName(), this.templatePath, this.devMode);
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_32);
+        cfg.setOutputFormat(HTMLOutputFormat.INSTANCE);
+        cfg.setDefaultEncoding(this.templateEncoding);
+        cfg.setTemplateLoader(new ServletContextTemplateLoader());
+        cfg.setTemplateExceptionHandler(this.devMode ? TemplateExceptionHandler.HTML_DEBUG_HANDLER : TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setAutoEscapingPolicy(Configuration.ENABLE_IF_SUPPORTED_AUTO_ESCAPING_POLICY);
+        cfg.setLocalizedLookup(false);
+        // keep compiled templates strongly, check modification only in dev mode
+        cfg.setCacheStorage(new MruCacheStorage(100, 1000));
+        cfg.setTemplateUpdateDelayMilliseconds(this.devMode ? 0 : Long.MAX_VALUE);
+        DefaultObjectWrapper ow = new DefaultObjectWrapper(Configuration.VERSION_2_3_32);
+        ow.setExposeFields(true);
+        cfg.setObjectWrapper(ow);
+        this.config = cfg;
+    }
+
+    @Override
+    public void render(String viewName, Map<String, Object> model, HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+        Template template;
+        try {
+            template = this.config.getTemplate(viewName);
+        } catch (TemplateNotFoundException e) {
+            throw new ServerErrorException("View not found: " + viewName, e);
+        }
+        // write into buffer of response directly
+        PrintWriter pw = resp.getWriter();
+        try {
+            template.process(model, pw);
+        } catch (TemplateException e) {
+            throw new ServerErrorException("Render view failed: " + viewName, e);
+        }
+        pw.flush();
+    }
+
+    // FreeMarker's ServletTemplateLoader is for javax.servlet
+    class ServletContextTemplateLoader extends URLTemplateLoader {
+
+        @Override
+        protected URL getURL(String name) {
+            try {
+                return servletContext.getResource(templatePath + name);
+            } catch (MalformedURLException e) {
+                log.warn("invalid template name: {}", name);
+                return null;
+            }
+        }
+    }
+}
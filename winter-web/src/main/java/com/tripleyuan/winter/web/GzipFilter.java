@@ -0,0 +1,550 @@
+package com.tripleyuan.winter.web;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compress response by gzip if client accepts it, content type matches and content is not smaller than min size.
+ * <p>
+ * Content is buffered until min size is reached, so small response is sent as is with Content-Length. Deflaters are
+ * pooled and reused by responses. If request goes async, response is finished when async cycle completes. Event stream
+ * and response written by WriteListener are not compressed.
+ */
+@Slf4j
+public class GzipFilter implements Filter {
+
+    private final int minSize;
+    // "application/json" or "text/*"
+    private final Set<String> contentTypes;
+    private final DeflaterPool deflaterPool;
+    private final Metrics metrics = new Metrics();
+
+    public GzipFilter(int minSize, Set<String> contentTypes, int level, int maxPooledDeflaters) {
+        this.minSize = minSize;
+        this.contentTypes = contentTypes;
+        this.deflaterPool = new DeflaterPool(level, maxPooledDeflaters);
+    }
+
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse resp = (HttpServletResponse) response;
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        if (acceptEncoding == null || !StaticResourceHandler.acceptsEncoding(acceptEncoding, "gzip") || req.getMethod().equals("HEAD")) {
+            chain.doFilter(request, response);
+            return;
+        }
+        GzipResponseWrapper wrapper = new GzipResponseWrapper(resp);
+        boolean async = false;
+        try {
+            chain.doFilter(request, wrapper);
+            if (req.isAsyncStarted()) {
+                // still written by async handler, e.g. SseEmitter
+                req.getAsyncContext().addListener(new FinishListener(wrapper));
+                async = true;
+            } else {
+                wrapper.finish();
+            }
+        } finally {
+            if (!async) {
+                wrapper.release();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.deflaterPool.close();
+    }
+
+    boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int n = contentType.indexOf(';');
+        String mimeType = (n < 0 ? contentType : contentType.substring(0, n)).trim().toLowerCase(Locale.ROOT);
+        // each event must reach client when flushed, and deflater would hold the connection's memory for long
+        if (mimeType.equals("text/event-stream")) {
+            return false;
+        }
+        if (this.contentTypes.contains(mimeType)) {
+            return true;
+        }
+        n = mimeType.indexOf('/');
+        return n > 0 && this.contentTypes.contains(mimeType.substring(0, n) + "/*");
+    }
+
+    /**
+     * Counters of compressed responses.
+     */
+    public static class Metrics {
+
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        public long getCompressedResponses() {
+            return this.responses.sum();
+        }
+
+        public long getUncompressedBytes() {
+            return this.bytesIn.sum();
+        }
+
+        public long getCompressedBytes() {
+            return this.bytesOut.sum();
+        }
+
+        // compressed / uncompressed, e.g. 0.2 means 80% saved
+        public double getCompressionRatio() {
+            long in = getUncompressedBytes();
+            return in == 0 ? 1.0 : (double) getCompressedBytes() / in;
+        }
+
+        // time spent in compression
+        public long getCompressionNanos() {
+            return this.nanos.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("GzipFilter.Metrics(responses=%d, uncompressed=%d, compressed=%d, ratio=%.3f, time=%dms)",
+                    getCompressedResponses(), getUncompressedBytes(), getCompressedBytes(), getCompressionRatio(),
+                    getCompressionNanos() / 1_000_000);
+        }
+    }
+
+    /**
+     * Finish response when async cycle completes, and follow new cycle started by async dispatch.
+     */
+    static class FinishListener implements AsyncListener {
+
+        private final GzipResponseWrapper wrapper;
+
+        FinishListener(GzipResponseWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            try {
+                this.wrapper.finish();
+            } catch (IOException | RuntimeException e) {
+                log.debug("finish async response failed, client may be disconnected: {}", e.toString());
+            } finally {
+                this.wrapper.release();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+        private CompressingOutputStream output;
+        private PrintWriter writer;
+        // Content-Length set by application, applied only if not compressed
+        private long contentLength = -1;
+
+        GzipResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (this.writer != null) {
+                throw new IllegalStateException("getWriter() has already been called.");
+            }
+            return getOutput();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (this.writer == null) {
+                if (this.output != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called.");
+                }
+                this.writer = new PrintWriter(new OutputStreamWriter(getOutput(), getCharacterEncoding()));
+            }
+            return this.writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (this.output == null || this.output.state == State.BUFFERING) {
+                this.contentLength = len;
+            } else if (this.output.state == State.RAW) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            } else if (this.output != null) {
+                this.output.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (this.output != null && this.output.state == State.BUFFERING) {
+                this.output.count = 0;
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            this.contentLength = -1;
+            if (this.output != null && this.output.state == State.BUFFERING) {
+                this.output.count = 0;
+            }
+        }
+
+        private CompressingOutputStream getOutput() throws IOException {
+            if (this.output == null) {
+                this.output = new CompressingOutputStream(this);
+            }
+            return this.output;
+        }
+
+        void finish() throws IOException {
+            if (this.output != null) {
+                this.output.finishing = true;
+            }
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            if (this.output != null) {
+                this.output.finish();
+            } else if (this.contentLength >= 0) {
+                super.setContentLengthLong(this.contentLength);
+            }
+        }
+
+        void release() {
+            if (this.output != null) {
+                this.output.release();
+            }
+        }
+
+        // decide by content before first byte is sent
+        boolean shouldCompress() {
+            int status = getStatus();
+            return !isCommitted() && status != 204 && status != 206 && status != 304 && getHeader("Content-Encoding") == null
+                    && isCompressible(getContentType()) && (this.contentLength < 0 || this.contentLength >= minSize);
+        }
+
+        void addVaryHeader() {
+            super.addHeader("Vary", "Accept-Encoding");
+        }
+
+        void applyContentLength() {
+            if (this.contentLength >= 0) {
+                super.setContentLengthLong(this.contentLength);
+            }
+        }
+    }
+
+    enum State {
+        BUFFERING, RAW, GZIP
+    }
+
+    class CompressingOutputStream extends ServletOutputStream {
+
+        private final GzipResponseWrapper response;
+        State state = State.BUFFERING;
+        // content before min size is reached
+        private byte[] buffer;
+        int count = 0;
+        // flush by finish() does not decide compression before whole content is known
+        boolean finishing = false;
+        // WriteListener is set to target, which is not flushed by finish()
+        private boolean nonBlocking = false;
+        private ServletOutputStream target;
+        private GzipOutputStream gzip;
+
+        CompressingOutputStream(GzipResponseWrapper response) {
+            this.response = response;
+            this.buffer = new byte[Math.max(minSize, 1)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (this.state == State.BUFFERING) {
+                if (this.count + len < this.buffer.length) {
+                    System.arraycopy(b, off, this.buffer, this.count, len);
+                    this.count += len;
+                    return;
+                }
+                start(this.response.shouldCompress());
+            }
+            if (this.state == State.GZIP) {
+                this.gzip.write(b, off, len);
+            } else {
+                this.target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.state == State.BUFFERING) {
+                if (this.finishing) {
+                    return;
+                }
+                // content is smaller than min size
+                start(false);
+            }
+            if (this.state == State.GZIP) {
+                this.gzip.flush();
+            } else {
+                this.target.flush();
+            }
+        }
+
+        void finish() throws IOException {
+            if (this.state == State.BUFFERING) {
+                // whole content is known
+                if (this.response.contentLength < 0) {
+                    this.response.contentLength = this.count;
+                }
+                start(false);
+            }
+            if (this.state == State.GZIP) {
+                this.gzip.finish();
+                metrics.responses.increment();
+                metrics.bytesIn.add(this.gzip.getBytesRead());
+                metrics.bytesOut.add(this.gzip.getBytesWritten());
+                metrics.nanos.add(this.gzip.nanos);
+                release();
+            }
+            if (!this.nonBlocking) {
+                this.target.flush();
+            }
+        }
+
+        void release() {
+            if (this.gzip != null) {
+                deflaterPool.release(this.gzip.deflater());
+                this.gzip = null;
+            }
+        }
+
+        private void start(boolean compress) throws IOException {
+            if (compress) {
+                this.response.setHeader("Content-Encoding", "gzip");
+                this.response.addVaryHeader();
+                this.target = this.response.getResponse().getOutputStream();
+                this.gzip = new GzipOutputStream(this.target, deflaterPool.borrow());
+                this.state = State.GZIP;
+            } else {
+                if (isCompressible(this.response.getContentType())) {
+                    this.response.addVaryHeader();
+                }
+                this.response.applyContentLength();
+                this.target = this.response.getResponse().getOutputStream();
+                this.state = State.RAW;
+            }
+            byte[] buffered = this.buffer;
+            int n = this.count;
+            this.buffer = null;
+            this.count = 0;
+            if (n > 0) {
+                if (this.state == State.GZIP) {
+                    this.gzip.write(buffered, 0, n);
+                } else {
+                    this.target.write(buffered, 0, n);
+                }
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return !this.nonBlocking || this.target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (this.state == State.GZIP) {
+                throw new IllegalStateException("Non-blocking write is not supported after compression started.");
+            }
+            if (this.state == State.BUFFERING) {
+                // written as is, deflater would block
+                try {
+                    start(false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            this.target.setWriteListener(writeListener);
+            this.nonBlocking = true;
+        }
+    }
+
+    /**
+     * Gzip format by a given (pooled) Deflater, which GZIPOutputStream does not accept.
+     */
+    static class GzipOutputStream extends DeflaterOutputStream {
+
+        private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+        private final CRC32 crc = new CRC32();
+        // time spent in compression
+        long nanos = 0;
+
+        GzipOutputStream(OutputStream out, Deflater deflater) throws IOException {
+            // sync flush, so flush() sends all written content, e.g. streaming json array
+            super(out, deflater, 8192, true);
+            out.write(HEADER);
+        }
+
+        Deflater deflater() {
+            return this.def;
+        }
+
+        long getBytesRead() {
+            return this.def.getBytesRead();
+        }
+
+        long getBytesWritten() {
+            // header and trailer
+            return this.def.getBytesWritten() + HEADER.length + 8;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            super.write(b, off, len);
+            this.crc.update(b, off, len);
+            this.nanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            long start = System.nanoTime();
+            super.finish();
+            writeIntLE((int) this.crc.getValue());
+            writeIntLE((int) this.def.getBytesRead());
+            this.nanos += System.nanoTime() - start;
+        }
+
+        private void writeIntLE(int v) throws IOException {
+            this.out.write(v & 0xff);
+            this.out.write((v >> 8) & 0xff);
+            this.out.write((v >> 16) & 0xff);
+            this.out.write((v >> 24) & 0xff);
+        }
+    }
+
+    /**
+     * Pool of raw Deflaters, which holds native memory and is expensive to create.
+     */
+    static class DeflaterPool {
+
+        private final int level;
+        private final int maxIdle;
+        private final ConcurrentLinkedQueue<Deflater> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        DeflaterPool(int level, int maxIdle) {
+            this.level = level;
+            this.maxIdle = maxIdle;
+        }
+
+        Deflater borrow() {
+            Deflater deflater = this.idle.poll();
+            if (deflater != null) {
+                this.idleCount.decrementAndGet();
+                return deflater;
+            }
+            return new Deflater(this.level, true);
+        }
+
+        void release(Deflater deflater) {
+            deflater.reset();
+            if (this.idleCount.incrementAndGet() <= this.maxIdle) {
+                this.idle.offer(deflater);
+            } else {
+                this.idleCount.decrementAndGet();
+                deflater.end();
+            }
+        }
+
+        int idleCount() {
+            return this.idleCount.get();
+        }
+
+        void close() {
+            Deflater deflater;
+            while ((deflater = this.idle.poll()) != null) {
+                this.idleCount.decrementAndGet();
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.tripleyuan.winter.web;
+
+import jakarta.servlet.Filter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Register {@link GzipFilter} to compress dynamic responses, e.g. JSON of REST api. Example:
+ *
+ * <pre>
+ * &#64;Bean
+ * GzipFilterRegistrationBean gzipFilterRegistrationBean() {
+ *     return new GzipFilterRegistrationBean(List.of("/api/*"), 2048, Set.of("application/json"));
+ * }
+ * </pre>
+ */
+public class GzipFilterRegistrationBean extends FilterRegistrationBean {
+
+    public static final int DEFAULT_MIN_SIZE = 1024;
+
+    public static final Set<String> DEFAULT_CONTENT_TYPES = Set.of("application/json", "application/javascript", "application/xml",
+            "text/html", "text/plain", "text/css", "text/xml", "text/javascript");
+
+    private final List<String> urlPatterns;
+    private final GzipFilter filter;
+
+    public GzipFilterRegistrationBean() {
+        this(List.of("/*"), DEFAULT_MIN_SIZE, DEFAULT_CONTENT_TYPES);
+    }
+
+    public GzipFilterRegistrationBean(List<String> urlPatterns, int minSize, Set<String> contentTypes) {
+        this(urlPatterns, minSize, contentTypes, Deflater.DEFAULT_COMPRESSION, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * @param minSize            response smaller than this is not compressed
+     * @param contentTypes       compressible content types, e.g. "application/json" or "text/*"
+     * @param level              compression level of Deflater
+     * @param maxPooledDeflaters max idle Deflaters kept for reuse
+     */
+    public GzipFilterRegistrationBean(List<String> urlPatterns, int minSize, Set<String> contentTypes, int level, int maxPooledDeflaters) {
+        this.urlPatterns = urlPatterns;
+        this.filter = new GzipFilter(minSize, contentTypes, level, maxPooledDeflaters);
+    }
+
+    @Override
+    public List<String> getUrlPatterns() {
+        return this.urlPatterns;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return this.filter;
+    }
+
+    // response is finished by GzipFilter when async cycle completes
+    @Override
+    public boolean isAsyncSupported() {
+        return true;
+    }
+
+    public GzipFilter.Metrics getMetrics() {
+        return this.filter.getMetrics();
+    }
+}
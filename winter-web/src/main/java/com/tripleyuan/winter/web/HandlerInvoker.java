@@ -0,0 +1,176 @@
+package com.tripleyuan.winter.web;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invoke handler method with resolved arguments, exception thrown by handler is not wrapped.
+ * <p>
+ * Handler methods with up to 6 parameters are called through a class generated by LambdaMetafactory, which calls the
+ * handler method directly, so JIT can inline it like a normal call. Others fall back to reflection.
+ */
+@FunctionalInterface
+public interface HandlerInvoker {
+
+    Object invoke(Object[] args) throws Exception;
+
+    static HandlerInvoker of(Object controller, Method method) {
+        HandlerInvoker invoker = Generated.create(controller, method);
+        return invoker != null ? invoker : reflective(controller, method);
+    }
+
+    static HandlerInvoker reflective(Object controller, Method method) {
+        method.setAccessible(true);
+        return args -> {
+            try {
+                return method.invoke(controller, args);
+            } catch (InvocationTargetException e) {
+                Throwable t = e.getCause();
+                if (t instanceof Exception ex) {
+                    throw ex;
+                }
+                if (t instanceof Error err) {
+                    throw err;
+                }
+                throw e;
+            }
+        };
+    }
+
+    // implemented by generated classes, controller is passed as first argument:
+
+    interface Call0 {
+        Object call(Object c) throws Exception;
+    }
+
+    interface Call1 {
+        Object call(Object c, Object a0) throws Exception;
+    }
+
+    interface Call2 {
+        Object call(Object c, Object a0, Object a1) throws Exception;
+    }
+
+    interface Call3 {
+        Object call(Object c, Object a0, Object a1, Object a2) throws Exception;
+    }
+
+    interface Call4 {
+        Object call(Object c, Object a0, Object a1, Object a2, Object a3) throws Exception;
+    }
+
+    interface Call5 {
+        Object call(Object c, Object a0, Object a1, Object a2, Object a3, Object a4) throws Exception;
+    }
+
+    interface Call6 {
+        Object call(Object c, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5) throws Exception;
+    }
+
+    interface Run0 {
+        void run(Object c) throws Exception;
+    }
+
+    interface Run1 {
+        void run(Object c, Object a0) throws Exception;
+    }
+
+    interface Run2 {
+        void run(Object c, Object a0, Object a1) throws Exception;
+    }
+
+    interface Run3 {
+        void run(Object c, Object a0, Object a1, Object a2) throws Exception;
+    }
+
+    interface Run4 {
+        void run(Object c, Object a0, Object a1, Object a2, Object a3) throws Exception;
+    }
+
+    interface Run5 {
+        void run(Object c, Object a0, Object a1, Object a2, Object a3, Object a4) throws Exception;
+    }
+
+    interface Run6 {
+        void run(Object c, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5) throws Exception;
+    }
+
+    @Slf4j
+    final class Generated {
+
+        static final int MAX_PARAMETERS = 6;
+
+        private static final Class<?>[] CALLS = {
+                Call0.class, Call1.class, Call2.class, Call3.class, Call4.class, Call5.class, Call6.class };
+        private static final Class<?>[] RUNS = {
+                Run0.class, Run1.class, Run2.class, Run3.class, Run4.class, Run5.class, Run6.class };
+
+        private Generated() {
+        }
+
+        // returns null if handler method cannot be called by generated class:
+        static HandlerInvoker create(Object controller, Method method) {
+            int n = method.getParameterCount();
+            if (n > MAX_PARAMETERS || Modifier.isStatic(method.getModifiers())) {
+                return null;
+            }
+            Class<?> controllerClass = controller.getClass();
+            boolean isVoid = method.getReturnType() == void.class;
+            Class<?> fi = isVoid ? RUNS[n] : CALLS[n];
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(controllerClass, MethodHandles.lookup());
+                MethodHandle impl = lookup.unreflect(method);
+                // erased interface type, and the type checked by generated class:
+                MethodType samType = MethodType.genericMethodType(n + 1);
+                Class<?>[] params = new Class<?>[n];
+                for (int i = 0; i < n; i++) {
+                    params[i] = MethodType.methodType(method.getParameterTypes()[i]).wrap().returnType();
+                }
+                MethodType instantiatedType = MethodType.methodType(method.getReturnType(), params).wrap()
+                        .insertParameterTypes(0, controllerClass);
+                if (isVoid) {
+                    samType = samType.changeReturnType(void.class);
+                    instantiatedType = instantiatedType.changeReturnType(void.class);
+                }
+                CallSite site = LambdaMetafactory.metafactory(lookup, isVoid ? "run" : "call", MethodType.methodType(fi),
+                        samType, impl, instantiatedType);
+                Object f = site.getTarget().invoke();
+                return adapt(controller, f, n, isVoid);
+            } catch (Throwable t) {
+                log.debug("Cannot generate invoker for handler method {}, fallback to reflection: {}", method, t.toString());
+                return null;
+            }
+        }
+
+        private static HandlerInvoker adapt(Object c, Object f, int n, boolean isVoid) {
+            if (isVoid) {
+                return switch (n) {
+                    case 0 -> { Run0 r = (Run0) f; yield args -> { r.run(c); return null; }; }
+                    case 1 -> { Run1 r = (Run1) f; yield args -> { r.run(c, args[0]); return null; }; }
+                    case 2 -> { Run2 r = (Run2) f; yield args -> { r.run(c, args[0], args[1]); return null; }; }
+                    case 3 -> { Run3 r = (Run3) f; yield args -> { r.run(c, args[0], args[1], args[2]); return null; }; }
+                    case 4 -> { Run4 r = (Run4) f; yield args -> { r.run(c, args[0], args[1], args[2], args[3]); return null; }; }
+                    case 5 -> { Run5 r = (Run5) f; yield args -> { r.run(c, args[0], args[1], args[2], args[3], args[4]); return null; }; }
+                    default -> { Run6 r = (Run6) f; yield args -> { r.run(c, args[0], args[1], args[2], args[3], args[4], args[5]); return null; }; }
+                };
+            }
+            return switch (n) {
+                case 0 -> { Call0 r = (Call0) f; yield args -> r.call(c); }
+                case 1 -> { Call1 r = (Call1) f; yield args -> r.call(c, args[0]); }
+                case 2 -> { Call2 r = (Call2) f; yield args -> r.call(c, args[0], args[1]); }
+                case 3 -> { Call3 r = (Call3) f; yield args -> r.call(c, args[0], args[1], args[2]); }
+                case 4 -> { Call4 r = (Call4) f; yield args -> r.call(c, args[0], args[1], args[2], args[3]); }
+                case 5 -> { Call5 r = (Call5) f; yield args -> r.call(c, args[0], args[1], args[2], args[3], args[4]); }
+                default -> { Call6 r = (Call6) f; yield args -> r.call(c, args[0], args[1], args[2], args[3], args[4], args[5]); }
+            };
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.tripleyuan.winter.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * View and model returned by @Controller. View name starts with "redirect:" sends redirect.
+ */
+public class ModelAndView {
+
+    private final String view;
+    private final Map<String, Object> model;
+    private final int status;
+
+    public ModelAndView(String viewName) {
+        this(viewName, HttpServletResponse.SC_OK, null);
+    }
+
+    public ModelAndView(String viewName, Map<String, Object> model) {
+        this(viewName, HttpServletResponse.SC_OK, model);
+    }
+
+    public ModelAndView(String viewName, String modelName, Object modelObject) {
+        this(viewName, HttpServletResponse.SC_OK, null);
+        addModel(modelName, modelObject);
+    }
+
+    public ModelAndView(String viewName, int status) {
+        this(viewName, status, null);
+    }
+
+    public ModelAndView(String viewName, int status, Map<String, Object> model) {
+        this.view = viewName;
+        this.status = status;
+        // copy since given model may be immutable
+        this.model = model == null ? new HashMap<>() : new HashMap<>(model);
+    }
+
+    public ModelAndView addModel(Map<String, Object> map) {
+        this.model.putAll(map);
+        return this;
+    }
+
+    public ModelAndView addModel(String key, Object value) {
+        this.model.put(key, value);
+        return this;
+    }
+
+    public Map<String, Object> getModel() {
+        return model;
+    }
+
+    public String getViewName() {
+        return view;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,283 @@
+package com.tripleyuan.winter.web;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tripleyuan.winter.utils.JsonUtils;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read request body of @RequestBody handler by non-blocking servlet I/O into pooled buffers, and dispatch the request
+ * again once the whole body has arrived, so that slow uploads do not hold container threads.
+ * <p>
+ * The body is kept as request attribute and parsed by Jackson from bytes. Buffers are returned to pool after arguments
+ * of handler are resolved.
+ */
+@Slf4j
+class RequestBodyReader {
+
+    static final String BODY_ATTRIBUTE = RequestBodyReader.class.getName() + ".BODY";
+
+    static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final long maxSize;
+    private final long timeout;
+    private final BufferPool pool;
+
+    RequestBodyReader(long maxSize, long timeout, int maxPooledBuffers) {
+        this.maxSize = Math.min(maxSize, Integer.MAX_VALUE - 8);
+        this.timeout = timeout;
+        this.pool = new BufferPool(BUFFER_SIZE, maxPooledBuffers);
+    }
+
+    /**
+     * Start reading body, returns false if body has been read, i.e. request is dispatched again.
+     */
+    boolean read(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (req.getAttribute(BODY_ATTRIBUTE) != null) {
+            return false;
+        }
+        if (req.getContentLengthLong() > this.maxSize) {
+            resp.sendError(413, "Payload Too Large");
+            return true;
+        }
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(this.timeout);
+        BodyListener listener = new BodyListener(req, resp, asyncContext, req.getInputStream());
+        asyncContext.addListener(listener);
+        try {
+            // container calls onDataAvailable() when data arrives
+            listener.input.setReadListener(listener);
+        } catch (UnsupportedOperationException e) {
+            log.debug("non-blocking read is not supported, read in container thread: {}", e.toString());
+            listener.readBlocking();
+        }
+        return true;
+    }
+
+    // return buffers of request body to pool
+    static void release(HttpServletRequest req) {
+        Body body = (Body) req.getAttribute(BODY_ATTRIBUTE);
+        if (body != null) {
+            body.release();
+        }
+    }
+
+    int idleBuffers() {
+        return this.pool.idleCount();
+    }
+
+    class BodyListener implements ReadListener, AsyncListener {
+
+        final HttpServletRequest req;
+        final HttpServletResponse resp;
+        final AsyncContext asyncContext;
+        final ServletInputStream input;
+        final Body body = new Body(pool);
+        // body is dispatched, or reading is aborted
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        BodyListener(HttpServletRequest req, HttpServletResponse resp, AsyncContext asyncContext, ServletInputStream input) {
+            this.req = req;
+            this.resp = resp;
+            this.asyncContext = asyncContext;
+            this.input = input;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            // read until no more data is available without blocking
+            while (this.input.isReady() && !this.done.get()) {
+                if (!readChunk()) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onAllDataRead() {
+            if (this.done.compareAndSet(false, true)) {
+                this.req.setAttribute(BODY_ATTRIBUTE, this.body);
+                this.asyncContext.dispatch();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // e.g. client disconnected while uploading
+            log.debug("read request body failed: {}", t.toString());
+            abort(0);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            log.warn("read request body timeout: {}", this.req.getRequestURI());
+            abort(408);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onError(event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        void readBlocking() throws IOException {
+            while (readChunk()) {
+            }
+            if (!this.done.get()) {
+                onAllDataRead();
+            }
+        }
+
+        // returns false if end of body, or reading is aborted
+        private boolean readChunk() throws IOException {
+            byte[] buffer = this.body.writableBuffer();
+            int n = this.input.read(buffer, this.body.position, buffer.length - this.body.position);
+            if (n < 0) {
+                return false;
+            }
+            this.body.advance(n);
+            if (this.body.length > maxSize) {
+                abort(413);
+                return false;
+            }
+            return true;
+        }
+
+        // send error status if not 0, and complete request
+        private void abort(int statusCode) {
+            if (!this.done.compareAndSet(false, true)) {
+                return;
+            }
+            this.body.release();
+            try {
+                if (statusCode > 0 && !this.resp.isCommitted()) {
+                    this.resp.sendError(statusCode);
+                }
+            } catch (IOException e) {
+                log.debug("send error failed: {}", e.toString());
+            }
+            try {
+                this.asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // already completed by container
+            }
+        }
+    }
+
+    /**
+     * Request body in buffers borrowed from pool.
+     */
+    static class Body {
+
+        private final BufferPool pool;
+        private final List<byte[]> buffers = new ArrayList<>(2);
+        // position in last buffer
+        private int position;
+        private long length;
+        private boolean released;
+
+        Body(BufferPool pool) {
+            this.pool = pool;
+        }
+
+        long length() {
+            return this.length;
+        }
+
+        synchronized <T> T parse(ObjectReader reader) {
+            if (this.released) {
+                throw new IllegalStateException("Request body is released.");
+            }
+            if (this.buffers.size() <= 1) {
+                // common case: parse in place
+                byte[] data = this.buffers.isEmpty() ? EMPTY : this.buffers.get(0);
+                return JsonUtils.readJson(data, 0, (int) this.length, reader);
+            }
+            byte[] data = new byte[(int) this.length];
+            int offset = 0;
+            for (byte[] buffer : this.buffers) {
+                int n = Math.min(buffer.length, data.length - offset);
+                System.arraycopy(buffer, 0, data, offset, n);
+                offset += n;
+            }
+            return JsonUtils.readJson(data, 0, data.length, reader);
+        }
+
+        synchronized void release() {
+            if (!this.released) {
+                this.released = true;
+                this.buffers.forEach(this.pool::release);
+                this.buffers.clear();
+            }
+        }
+
+        private byte[] writableBuffer() {
+            if (this.buffers.isEmpty() || this.position == this.buffers.get(this.buffers.size() - 1).length) {
+                this.buffers.add(this.pool.borrow());
+                this.position = 0;
+            }
+            return this.buffers.get(this.buffers.size() - 1);
+        }
+
+        private void advance(int n) {
+            this.position += n;
+            this.length += n;
+        }
+    }
+
+    static class BufferPool {
+
+        private final int bufferSize;
+        private final int maxIdle;
+        private final ConcurrentLinkedQueue<byte[]> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        BufferPool(int bufferSize, int maxIdle) {
+            this.bufferSize = bufferSize;
+            this.maxIdle = maxIdle;
+        }
+
+        byte[] borrow() {
+            byte[] buffer = this.idle.poll();
+            if (buffer != null) {
+                this.idleCount.decrementAndGet();
+                return buffer;
+            }
+            return new byte[this.bufferSize];
+        }
+
+        void release(byte[] buffer) {
+            if (this.idleCount.incrementAndGet() <= this.maxIdle) {
+                this.idle.offer(buffer);
+            } else {
+                this.idleCount.decrementAndGet();
+            }
+        }
+
+        int idleCount() {
+            return this.idleCount.get();
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.tripleyuan.winter.web;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Return type of handler which streams response body chunk by chunk. Chunks can be written from any thread after
+ * handler returned, until complete() is called:
+ *
+ * <pre>
+ * &#64;GetMapping("/export")
+ * ResponseStream export() {
+ *     ResponseStream stream = new ResponseStream("text/csv");
+ *     executor.execute(() -> {
+ *         ...
+ *         stream.write(line);
+ *         ...
+ *         stream.complete();
+ *     });
+ *     return stream;
+ * }
+ * </pre>
+ * <p>
+ * Chunks are written by non-blocking servlet I/O and queued while client is not ready, writing fails if more than
+ * maxPendingBytes are queued. Each chunk is flushed as soon as it is written.
+ */
+@Slf4j
+public class ResponseStream {
+
+    public static final long DEFAULT_MAX_PENDING_BYTES = 1024 * 1024;
+
+    private final String contentType;
+    // timeout (ms), 0 for no timeout, null for timeout of async request
+    private final Long timeout;
+    private long maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+
+    private Runnable completionCallback;
+    private Runnable timeoutCallback;
+    private Consumer<Throwable> errorCallback;
+
+    // chunks not written yet, guarded by this
+    private final Deque<byte[]> pending = new ArrayDeque<>();
+    private long pendingBytes;
+    private boolean flushNeeded;
+    // complete() is called, close when pending chunks are written
+    private boolean completing;
+    private boolean closed;
+
+    private HttpServletResponse response;
+    private ServletOutputStream out;
+    private AsyncContext asyncContext;
+    // output is non-blocking if write listener is accepted
+    private boolean nonBlocking;
+    private ScheduledFuture<?> heartbeatTask;
+    private final CountDownLatch closedLatch = new CountDownLatch(1);
+
+    public ResponseStream(String contentType) {
+        this.contentType = contentType;
+        this.timeout = null;
+    }
+
+    public ResponseStream(String contentType, long timeout) {
+        this.contentType = contentType;
+        this.timeout = timeout;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setMaxPendingBytes(long maxPendingBytes) {
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * Called once when stream is closed, by complete, error, timeout or client disconnected.
+     */
+    public ResponseStream onCompletion(Runnable callback) {
+        this.completionCallback = callback;
+        return this;
+    }
+
+    public ResponseStream onTimeout(Runnable callback) {
+        this.timeoutCallback = callback;
+        return this;
+    }
+
+    /**
+     * Called when writing failed, e.g. client disconnected or too slow.
+     */
+    public ResponseStream onError(Consumer<Throwable> callback) {
+        this.errorCallback = callback;
+        return this;
+    }
+
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    public void write(String text) throws IOException {
+        write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a chunk, IOException is thrown if stream is closed or client cannot keep up.
+     */
+    public void write(byte[] chunk) throws IOException {
+        IOException error = null;
+        synchronized (this) {
+            if (this.closed || this.completing) {
+                throw new IOException("Response stream is closed.");
+            }
+            if (this.pendingBytes + chunk.length > this.maxPendingBytes) {
+                error = new IOException("Pending bytes of response stream exceeds " + this.maxPendingBytes + ", client is too slow.");
+            } else {
+                this.pending.add(chunk);
+                this.pendingBytes += chunk.length;
+                try {
+                    drain();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            close(error);
+            throw error;
+        }
+    }
+
+    /**
+     * Complete response after pending chunks are written.
+     */
+    public void complete() {
+        boolean drained = false;
+        IOException error = null;
+        synchronized (this) {
+            if (this.closed || this.completing) {
+                return;
+            }
+            this.completing = true;
+            try {
+                drained = drain();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (drained || error != null) {
+            close(error);
+        }
+    }
+
+    /**
+     * Close with error, status 500 is sent if nothing is written yet.
+     */
+    public void completeWithError(Throwable t) {
+        synchronized (this) {
+            if (this.response != null && !this.response.isCommitted()) {
+                this.response.resetBuffer();
+                this.response.setStatus(500);
+            }
+        }
+        close(t);
+    }
+
+    // content of heartbeat written when stream is idle, or null if not supported
+    protected byte[] heartbeat() {
+        return null;
+    }
+
+    // called by DispatcherServlet after handler returned
+    void start(HttpServletRequest req, HttpServletResponse resp, long defaultTimeout,
+               ScheduledExecutorService scheduler, long heartbeatInterval) throws IOException {
+        long timeout = this.timeout != null ? this.timeout : defaultTimeout;
+        resp.setContentType(this.contentType);
+        resp.setHeader("Cache-Control", "no-cache");
+        // disable buffering of proxy, e.g. nginx
+        resp.setHeader("X-Accel-Buffering", "no");
+        ServletOutputStream output = resp.getOutputStream();
+        AsyncContext ac = null;
+        if (req.isAsyncSupported()) {
+            ac = req.startAsync(req, resp);
+            ac.setTimeout(timeout);
+            ac.addListener(new StreamAsyncListener());
+        }
+        boolean drained = false;
+        IOException error = null;
+        synchronized (this) {
+            this.response = resp;
+            this.out = output;
+            this.asyncContext = ac;
+            if (ac != null) {
+                try {
+                    this.nonBlocking = true;
+                    // container calls onWritePossible() when output is ready
+                    output.setWriteListener(new StreamWriteListener());
+                } catch (UnsupportedOperationException | IllegalStateException e) {
+                    log.debug("non-blocking write is not supported, write in caller thread: {}", e.toString());
+                    this.nonBlocking = false;
+                }
+            }
+            if (!this.nonBlocking) {
+                try {
+                    drained = drain();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            byte[] hb = heartbeat();
+            if (hb != null && heartbeatInterval > 0 && !this.closed) {
+                this.heartbeatTask = scheduler.scheduleWithFixedDelay(() -> writeHeartbeat(hb),
+                        heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (drained || error != null) {
+            close(error);
+        }
+        if (ac == null) {
+            // async is not supported, hold container thread until closed
+            try {
+                if (timeout > 0) {
+                    if (!this.closedLatch.await(timeout, TimeUnit.MILLISECONDS)) {
+                        onStreamTimeout();
+                    }
+                } else {
+                    this.closedLatch.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close(e);
+            }
+        }
+    }
+
+    // write pending chunks while output is ready, returns true if all are written and stream is completing
+    private boolean drain() throws IOException {
+        if (this.out == null || this.closed) {
+            return false;
+        }
+        while (!this.nonBlocking || this.out.isReady()) {
+            byte[] chunk = this.pending.poll();
+            if (chunk != null) {
+                this.pendingBytes -= chunk.length;
+                this.out.write(chunk);
+                this.flushNeeded = true;
+            } else if (this.flushNeeded) {
+                // flush when queue is empty: a single chunk is pushed at once and burst is flushed together
+                this.flushNeeded = false;
+                this.out.flush();
+            } else {
+                return this.completing;
+            }
+        }
+        return false;
+    }
+
+    private void writeHeartbeat(byte[] hb) {
+        IOException error = null;
+        synchronized (this) {
+            if (this.closed || this.completing || !this.pending.isEmpty()) {
+                return;
+            }
+            this.pending.add(hb);
+            this.pendingBytes += hb.length;
+            try {
+                drain();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            log.debug("heartbeat failed, client may be disconnected: {}", error.toString());
+            close(error);
+        }
+    }
+
+    private void onStreamTimeout() {
+        if (isClosed()) {
+            return;
+        }
+        log.debug("response stream timeout.");
+        if (this.timeoutCallback != null) {
+            this.timeoutCallback.run();
+        }
+        close(null);
+    }
+
+    // release resources and notify callbacks only once
+    private void close(Throwable error) {
+        AsyncContext ac;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.pending.clear();
+            this.pendingBytes = 0;
+            if (this.heartbeatTask != null) {
+                this.heartbeatTask.cancel(false);
+            }
+            ac = this.asyncContext;
+        }
+        if (ac != null) {
+            try {
+                ac.complete();
+            } catch (IllegalStateException e) {
+                // already completed by container
+            }
+        }
+        this.closedLatch.countDown();
+        if (error != null) {
+            log.debug("response stream closed by error: {}", error.toString());
+            if (this.errorCallback != null) {
+                this.errorCallback.accept(error);
+            }
+        }
+        if (this.completionCallback != null) {
+            this.completionCallback.run();
+        }
+    }
+
+    class StreamWriteListener implements WriteListener {
+
+        @Override
+        public void onWritePossible() throws IOException {
+            boolean drained = false;
+            IOException error = null;
+            synchronized (ResponseStream.this) {
+                try {
+                    drained = drain();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (drained || error != null) {
+                close(error);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close(t);
+        }
+    }
+
+    class StreamAsyncListener implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close(null);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            onStreamTimeout();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // e.g. client disconnected
+            close(event.getThrowable());
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
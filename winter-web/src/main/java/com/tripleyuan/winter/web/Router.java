@@ -0,0 +1,159 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.utils.PathUtils;
+import com.tripleyuan.winter.utils.PathUtils.Segment;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.ServletException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Segment based radix tree to find route by request path, cost of lookup depends on path length, not route count.
+ * <p>
+ * Precedence of a segment is: static segment, segment with prefix / suffix around a variable (e.g. "{name}.json",
+ * longer literal first), then whole variable segment. If a branch has no route, next branch is tried.
+ */
+class Router<T> {
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Add route, throw ServletException if path is invalid or route with same shape exists.
+     */
+    void add(String path, T value) throws ServletException {
+        Node<T> node = getOrCreateNode(path);
+        if (node.value != null) {
+            throw new ServletException("Duplicate route: " + path);
+        }
+        node.value = value;
+    }
+
+    /**
+     * Get route value of path, or create it by supplier. Paths of same shape (e.g. "/{a}" and "/{b}") share the value.
+     */
+    T computeIfAbsent(String path, Supplier<T> supplier) throws ServletException {
+        Node<T> node = getOrCreateNode(path);
+        if (node.value == null) {
+            node.value = supplier.get();
+        }
+        return node.value;
+    }
+
+    /**
+     * Find route by request path, return null if not found.
+     */
+    @Nullable
+    Match<T> match(String path) {
+        List<String> variables = new ArrayList<>(4);
+        Node<T> node = match(this.root, path, 0, variables);
+        return node == null ? null : new Match<>(node.value, variables.toArray(new String[0]));
+    }
+
+    private Node<T> getOrCreateNode(String path) throws ServletException {
+        Node<T> node = this.root;
+        for (String s : PathUtils.split(path)) {
+            Segment segment = PathUtils.parseSegment(path, s);
+            if (segment.getVariable() == null) {
+                node = node.statics.computeIfAbsent(segment.getPrefix(), k -> new Node<>());
+            } else if (segment.getPrefix().isEmpty() && segment.getSuffix().isEmpty()) {
+                if (node.variable == null) {
+                    node.variable = new Node<>();
+                }
+                node = node.variable;
+            } else {
+                node = node.getOrCreatePattern(segment.getPrefix(), segment.getSuffix());
+            }
+        }
+        return node;
+    }
+
+    // match segment starts at index 'start' of path, which is just after a '/' or 0
+    private Node<T> match(Node<T> node, String path, int start, List<String> variables) {
+        int end = path.indexOf('/', start);
+        boolean last = end < 0;
+        if (last) {
+            end = path.length();
+        }
+        // static:
+        Node<T> child = node.statics.get(path.substring(start, end));
+        if (child != null) {
+            Node<T> found = last ? child.asRoute() : match(child, path, end + 1, variables);
+            if (found != null) {
+                return found;
+            }
+        }
+        // prefix and suffix:
+        for (Node<T> pattern : node.patterns) {
+            int len = end - start;
+            if (len >= pattern.prefix.length() + pattern.suffix.length()
+                    && path.startsWith(pattern.prefix, start) && path.startsWith(pattern.suffix, end - pattern.suffix.length())) {
+                Node<T> found = matchVariable(pattern, path, start + pattern.prefix.length(), end - pattern.suffix.length(),
+                        end, last, variables);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        // variable:
+        if (node.variable != null) {
+            return matchVariable(node.variable, path, start, end, end, last, variables);
+        }
+        return null;
+    }
+
+    private Node<T> matchVariable(Node<T> child, String path, int valueStart, int valueEnd, int end, boolean last, List<String> variables) {
+        variables.add(path.substring(valueStart, valueEnd));
+        Node<T> found = last ? child.asRoute() : match(child, path, end + 1, variables);
+        if (found == null) {
+            variables.remove(variables.size() - 1);
+        }
+        return found;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    static class Match<T> {
+        private T value;
+        // values of path variables, in order of path
+        private String[] variables;
+    }
+
+    static class Node<T> {
+        // static segment -> child
+        final Map<String, Node<T>> statics = new HashMap<>();
+        // children of segment with literal prefix or suffix around a variable
+        final List<Node<T>> patterns = new ArrayList<>(0);
+        // child of whole variable segment
+        Node<T> variable;
+
+        // literal around variable, only for pattern node
+        String prefix;
+        String suffix;
+
+        T value;
+
+        Node<T> asRoute() {
+            return this.value == null ? null : this;
+        }
+
+        Node<T> getOrCreatePattern(String prefix, String suffix) {
+            for (Node<T> p : this.patterns) {
+                if (p.prefix.equals(prefix) && p.suffix.equals(suffix)) {
+                    return p;
+                }
+            }
+            Node<T> p = new Node<>();
+            p.prefix = prefix;
+            p.suffix = suffix;
+            this.patterns.add(p);
+            // more specific (longer literal) first
+            this.patterns.sort(Comparator.comparingInt((Node<T> n) -> n.prefix.length() + n.suffix.length()).reversed());
+            return p;
+        }
+    }
+}
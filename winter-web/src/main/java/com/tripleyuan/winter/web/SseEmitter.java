@@ -0,0 +1,107 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.utils.JsonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Server-Sent Events stream. Data which is not String is sent as json:
+ *
+ * <pre>
+ * SseEmitter emitter = new SseEmitter();
+ * emitter.send(SseEmitter.event().id("1").name("progress").data(Map.of("percent", 50)));
+ * </pre>
+ * <p>
+ * A comment line is written as heartbeat while idle, to keep connection alive through proxies and to detect
+ * disconnected clients. So the stream has no timeout by default, instead of the timeout of async request, which
+ * would close a long-lived event feed even while heartbeats flow.
+ */
+public class SseEmitter extends ResponseStream {
+
+    public static final String CONTENT_TYPE = "text/event-stream;charset=UTF-8";
+
+    static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    public SseEmitter() {
+        super(CONTENT_TYPE, 0);
+    }
+
+    public SseEmitter(long timeout) {
+        super(CONTENT_TYPE, timeout);
+    }
+
+    public static Event event() {
+        return new Event();
+    }
+
+    public void send(Object data) throws IOException {
+        send(event().data(data));
+    }
+
+    public void send(String name, Object data) throws IOException {
+        send(event().name(name).data(data));
+    }
+
+    public void send(Event event) throws IOException {
+        write(event.toBytes());
+    }
+
+    @Override
+    protected byte[] heartbeat() {
+        return HEARTBEAT;
+    }
+
+    public static class Event {
+
+        private String id;
+        private String name;
+        private Object data;
+        private Long retry;
+
+        public Event id(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Event name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Event data(Object data) {
+            this.data = data;
+            return this;
+        }
+
+        // reconnection time (ms) of client
+        public Event retry(long retry) {
+            this.retry = retry;
+            return this;
+        }
+
+        byte[] toBytes() {
+            StringBuilder sb = new StringBuilder(64);
+            if (this.id != null) {
+                appendField(sb, "id", this.id);
+            }
+            if (this.name != null) {
+                appendField(sb, "event", this.name);
+            }
+            if (this.retry != null) {
+                sb.append("retry:").append(this.retry).append('\n');
+            }
+            if (this.data != null) {
+                appendField(sb, "data", this.data instanceof String ? (String) this.data : JsonUtils.writeJson(this.data));
+            }
+            return sb.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        // multi-line value is sent as one field per line
+        private static void appendField(StringBuilder sb, String field, String value) {
+            for (String line : value.split("\r\n|\r|\n", -1)) {
+                sb.append(field).append(':').append(line).append('\n');
+            }
+        }
+    }
+}
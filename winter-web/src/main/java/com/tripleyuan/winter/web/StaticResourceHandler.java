@@ -0,0 +1,485 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.utils.StreamUtils;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serve static resources with cached metadata, conditional requests (ETag / Last-Modified) and single byte range.
+ * <p>
+ * Resource on file system is sent by FileChannel, other resources (e.g. in packed war) by InputStream.
+ * <p>
+ * Compressible resources are sent by precompressed sibling ("app.js.br", "app.js.gz") if exists and is not older than
+ * the resource, otherwise gzip-ed once and kept in a bounded LRU cache. Range request is always served from uncompressed
+ * content.
+ */
+@Slf4j
+class StaticResourceHandler {
+
+    // null to omit header
+    private final String cacheControl;
+
+    // uri -> metadata, only existing resources are cached
+    private final Map<String, StaticResource> resources = new ConcurrentHashMap<>();
+
+    // gzip-ed content of compressible resources, null if disabled
+    private final GzipCache gzipCache;
+
+    // content smaller than this is not worth compressing
+    static final int GZIP_MIN_LENGTH = 256;
+
+    // encoding -> file extension, in order of preference
+    private static final String[][] PRECOMPRESSED = {{"br", ".br"}, {"gzip", ".gz"}};
+
+    StaticResourceHandler(String cacheControl, long gzipCacheSize) {
+        this.cacheControl = cacheControl == null || cacheControl.isEmpty() ? null : cacheControl;
+        this.gzipCache = gzipCacheSize > 0 ? new GzipCache(gzipCacheSize) : null;
+    }
+
+    void handle(String uri, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        ServletContext servletContext = req.getServletContext();
+        StaticResource resource = getResource(servletContext, uri);
+        if (resource == null) {
+            resp.sendError(404, "Not Found");
+            return;
+        }
+
+        String range = req.getHeader("Range");
+        Encoded encoded = null;
+        if (resource.compressible) {
+            resp.setHeader("Vary", "Accept-Encoding");
+            if (range == null) {
+                encoded = getEncoded(servletContext, uri, resource, req.getHeader("Accept-Encoding"));
+            }
+        }
+        String etag = encoded == null ? resource.etag : encoded.etag;
+
+        resp.setHeader("ETag", etag);
+        resp.setDateHeader("Last-Modified", resource.lastModified);
+        resp.setHeader("Accept-Ranges", "bytes");
+        if (this.cacheControl != null) {
+            resp.setHeader("Cache-Control", this.cacheControl);
+        }
+        if (isNotModified(req, resource, etag)) {
+            resp.setStatus(304);
+            return;
+        }
+        resp.setContentType(resource.contentType);
+
+        if (encoded != null) {
+            resp.setHeader("Content-Encoding", encoded.encoding);
+            resp.setContentLengthLong(encoded.length);
+            OutputStream out = resp.getOutputStream();
+            if (encoded.file != null) {
+                sendFile(encoded.file, 0, encoded.length, out);
+            } else {
+                out.write(encoded.data);
+            }
+            out.flush();
+            return;
+        }
+
+        // range:
+        long start = 0;
+        long count = resource.length;
+        if (range != null && isRangeApplicable(req, resource)) {
+            long[] r = parseRange(range, resource.length);
+            if (r == null) {
+                resp.setHeader("Content-Range", "bytes */" + resource.length);
+                resp.sendError(416, "Range Not Satisfiable");
+                return;
+            }
+            if (r.length == 2) {
+                start = r[0];
+                count = r[1] - r[0] + 1;
+                resp.setStatus(206);
+                resp.setHeader("Content-Range", "bytes " + r[0] + "-" + r[1] + "/" + resource.length);
+            }
+        }
+        resp.setContentLengthLong(count);
+        if (count > 0) {
+            send(servletContext, uri, resource, start, count, resp.getOutputStream());
+        }
+    }
+
+    private StaticResource getResource(ServletContext servletContext, String uri) throws IOException {
+        StaticResource resource = this.resources.get(uri);
+        if (resource != null && resource.file != null && isModified(resource)) {
+            // file is changed, e.g. in development
+            this.resources.remove(uri);
+            resource = null;
+        }
+        if (resource == null) {
+            resource = resolveResource(servletContext, uri);
+            if (resource != null) {
+                log.debug("resolved static resource: {}", resource);
+                this.resources.put(uri, resource);
+            }
+        }
+        return resource;
+    }
+
+    private boolean isModified(StaticResource resource) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(resource.file, BasicFileAttributes.class);
+            if (attrs.size() != resource.length || attrs.lastModifiedTime().toMillis() != resource.lastModified) {
+                return true;
+            }
+        } catch (IOException e) {
+            // deleted
+            return true;
+        }
+        if (resource.compressible) {
+            // precompressed sibling is added, changed or deleted
+            for (String[] ext : PRECOMPRESSED) {
+                Encoded current = findPrecompressed(resource.file, ext[0], ext[1], resource.etag, resource.lastModified);
+                Encoded cached = resource.precompressed.stream().filter(e -> e.encoding.equals(ext[0])).findFirst().orElse(null);
+                if (current == null && cached == null) {
+                    continue;
+                }
+                if (current == null || cached == null || current.length != cached.length || current.lastModified != cached.lastModified) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private StaticResource resolveResource(ServletContext servletContext, String uri) throws IOException {
+        String mimeType = servletContext.getMimeType(uri.substring(uri.lastIndexOf('/') + 1));
+        if (mimeType == null) {
+            mimeType = "application/octet-stream";
+        }
+        String realPath = servletContext.getRealPath(uri);
+        if (realPath != null) {
+            Path file = Paths.get(realPath);
+            if (Files.isRegularFile(file)) {
+                long length = Files.size(file);
+                long lastModified = Files.getLastModifiedTime(file).toMillis();
+                String etag = etag(length, lastModified);
+                boolean compressible = isCompressible(mimeType);
+                List<Encoded> precompressed = new ArrayList<>(2);
+                if (compressible) {
+                    for (String[] ext : PRECOMPRESSED) {
+                        Encoded e = findPrecompressed(file, ext[0], ext[1], etag, lastModified);
+                        if (e != null) {
+                            precompressed.add(e);
+                        }
+                    }
+                }
+                return new StaticResource(file, mimeType, length, lastModified, etag, compressible, precompressed);
+            }
+        }
+        URL url = servletContext.getResource(uri);
+        if (url == null) {
+            return null;
+        }
+        URLConnection conn = url.openConnection();
+        conn.setUseCaches(false);
+        long length = conn.getContentLengthLong();
+        long lastModified = conn.getLastModified();
+        conn.getInputStream().close();
+        if (length < 0) {
+            // directory or unknown length
+            return null;
+        }
+        return new StaticResource(null, mimeType, length, lastModified, etag(length, lastModified), isCompressible(mimeType), List.of());
+    }
+
+    // precompressed sibling of file, or null if not exists or older than file (stale)
+    private static Encoded findPrecompressed(Path file, String encoding, String extension, String etag, long lastModified) {
+        Path sibling = file.resolveSibling(file.getFileName() + extension);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(sibling, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        long siblingModified = attrs.lastModifiedTime().toMillis();
+        if (!attrs.isRegularFile() || siblingModified < lastModified) {
+            return null;
+        }
+        return new Encoded(encoding, encodedETag(etag, encoding), sibling, null, attrs.size(), siblingModified);
+    }
+
+    // choose precompressed file, or gzip-ed content in cache, return null to send uncompressed content
+    private Encoded getEncoded(ServletContext servletContext, String uri, StaticResource resource, String acceptEncoding)
+            throws IOException {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        for (Encoded e : resource.precompressed) {
+            if (acceptsEncoding(acceptEncoding, e.encoding)) {
+                return e;
+            }
+        }
+        if (this.gzipCache == null || resource.length < GZIP_MIN_LENGTH || !acceptsEncoding(acceptEncoding, "gzip")) {
+            return null;
+        }
+        String key = uri + resource.etag;
+        byte[] data = this.gzipCache.get(key);
+        if (data == null) {
+            data = gzip(servletContext, uri, resource);
+            if (data.length >= resource.length) {
+                // not worth, remember by empty content
+                data = new byte[0];
+            }
+            this.gzipCache.put(key, data);
+        }
+        return data.length == 0 ? null : new Encoded("gzip", encodedETag(resource.etag, "gzip"), null, data, data.length, 0);
+    }
+
+    private byte[] gzip(ServletContext servletContext, String uri, StaticResource resource) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) (resource.length / 4));
+        // compressed only once, so use best compression
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer, StreamUtils.BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            send(servletContext, uri, resource, 0, resource.length, out);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void send(ServletContext servletContext, String uri, StaticResource resource, long start, long count, OutputStream out)
+            throws IOException {
+        if (resource.file != null) {
+            sendFile(resource.file, start, count, out);
+        } else {
+            try (InputStream in = servletContext.getResourceAsStream(uri)) {
+                in.skipNBytes(start);
+                byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+                long remaining = count;
+                while (remaining > 0) {
+                    int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (n < 0) {
+                        break;
+                    }
+                    out.write(buffer, 0, n);
+                    remaining -= n;
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private void sendFile(Path file, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long end = start + count;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+    }
+
+    // If-None-Match takes precedence over If-Modified-Since
+    private boolean isNotModified(HttpServletRequest req, StaticResource resource, String etag) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = getDateHeader(req, "If-Modified-Since");
+        // http date has second precision
+        return ifModifiedSince >= 0 && resource.lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // range is ignored if If-Range does not match current resource
+    private boolean isRangeApplicable(HttpServletRequest req, StaticResource resource) {
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // strong comparison
+            return ifRange.equals(resource.etag);
+        }
+        long date = getDateHeader(req, "If-Range");
+        return date >= 0 && resource.lastModified / 1000 == date / 1000;
+    }
+
+    private long getDateHeader(HttpServletRequest req, String name) {
+        try {
+            return req.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parse "bytes=start-end", return {start, end} of satisfiable range, empty array to send whole content (e.g. multiple
+     * ranges or invalid syntax), or null if not satisfiable.
+     */
+    static long[] parseRange(String range, long length) {
+        final long[] whole = new long[0];
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return whole;
+        }
+        String spec = range.substring(6).trim();
+        int n = spec.indexOf('-');
+        if (n < 0) {
+            return whole;
+        }
+        try {
+            long start;
+            long end;
+            if (n == 0) {
+                // suffix: bytes=-500
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, n));
+                end = n == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(n + 1)), length - 1);
+                if (end < start) {
+                    return start >= length ? null : whole;
+                }
+            }
+            if (start >= length) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return whole;
+        }
+    }
+
+    static boolean matchesETag(String header, String etag) {
+        // weak comparison
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // e.g. "gzip, deflate, br", "gzip;q=1.0, *;q=0.5", "br;q=0"
+    static boolean acceptsEncoding(String acceptEncoding, String encoding) {
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase(encoding) || coding.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            return Double.parseDouble(param.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isCompressible(String mimeType) {
+        return mimeType.startsWith("text/") || mimeType.contains("javascript") || mimeType.contains("json") || mimeType.contains("xml")
+                || mimeType.equals("image/svg+xml") || mimeType.equals("application/wasm");
+    }
+
+    private static String etag(long length, long lastModified) {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    // different representation needs different etag: "1a-18c" => "1a-18c-gzip"
+    private static String encodedETag(String etag, String encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    @AllArgsConstructor
+    @ToString
+    static class StaticResource {
+        // file on file system, or null
+        final Path file;
+        final String contentType;
+        final long length;
+        final long lastModified;
+        final String etag;
+        final boolean compressible;
+        // precompressed siblings on file system
+        final List<Encoded> precompressed;
+    }
+
+    @AllArgsConstructor
+    @ToString
+    static class Encoded {
+        final String encoding;
+        final String etag;
+        // precompressed file, or null
+        final Path file;
+        // compressed content, or null
+        @ToString.Exclude
+        final byte[] data;
+        final long length;
+        // of precompressed file, or 0
+        final long lastModified;
+    }
+
+    /**
+     * LRU cache bounded by total bytes of content.
+     */
+    static class GzipCache {
+
+        private final long capacity;
+        private long size = 0;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        GzipCache(long capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized byte[] get(String key) {
+            return this.entries.get(key);
+        }
+
+        synchronized void put(String key, byte[] data) {
+            if (data.length > this.capacity) {
+                return;
+            }
+            byte[] old = this.entries.put(key, data);
+            this.size += data.length - (old == null ? 0 : old.length);
+            Iterator<byte[]> it = this.entries.values().iterator();
+            while (this.size > this.capacity && it.hasNext()) {
+                this.size -= it.next().length;
+                it.remove();
+            }
+        }
+
+        synchronized long size() {
+            return this.size;
+        }
+    }
+}
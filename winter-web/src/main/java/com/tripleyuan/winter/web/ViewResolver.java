@@ -1,4 +1,26 @@
 package com.tripleyuan.winter.web;
 
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Render view of ModelAndView returned by @Controller. The default one is FreeMarkerViewResolver defined by
+ * WebMvcConfiguration, declare another ViewResolver bean with @Primary to replace it.
+ */
 public interface ViewResolver {
+
+    /**
+     * Called once by DispatcherServlet.init() before rendering.
+     */
+    void init();
+
+    /**
+     * Render view into response.
+     */
+    void render(String viewName, Map<String, Object> model, HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException;
 }
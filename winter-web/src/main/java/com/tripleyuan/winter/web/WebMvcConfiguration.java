@@ -20,13 +20,15 @@ public class WebMvcConfiguration {
         servletContext = ctx;
     }
 
-    // @Bean(initMethod = "init")
-    // ViewResolver viewResolver( //
-    //         @Autowired ServletContext servletContext, //
-    //         @Value("${summer.web.freemarker.template-path:/WEB-INF/templates}") String templatePath, //
-    //         @Value("${summer.web.freemarker.template-encoding:UTF-8}") String templateEncoding) {
-    //     return new FreeMarkerViewResolver(servletContext, templatePath, templateEncoding);
-    // }
+    // initialized by DispatcherServlet
+    @Bean
+    ViewResolver viewResolver( //
+            @Autowired ServletContext servletContext, //
+            @Value("${winter.web.freemarker.template-path:/WEB-INF/templates}") String templatePath, //
+            @Value("${winter.web.freemarker.template-encoding:UTF-8}") String templateEncoding, //
+            @Value("${winter.web.freemarker.dev-mode:false}") boolean devMode) {
+        return new FreeMarkerViewResolver(servletContext, templatePath, templateEncoding, devMode);
+    }
 
     @Bean
     ServletContext servletContext() {
@@ -1,7 +1,9 @@
 package com.tripleyuan.winter.controller;
 
 import com.tripleyuan.winter.annotation.*;
+import com.tripleyuan.winter.exception.ServerWebInputException;
 import com.tripleyuan.winter.utils.JsonUtils;
+import com.tripleyuan.winter.web.SseEmitter;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,7 +11,15 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @RestController
 public class ApiController {
@@ -62,6 +72,101 @@ public class ApiController {
         pw.flush();
     }
 
+    @PutMapping("/api/users/{id}")
+    Map<String, Object> updateUser(@PathVariable("id") long id, @RequestBody SigninObj user) {
+        return Map.of("updated", id + ":" + user.name);
+    }
+
+    @PatchMapping("/api/users/{id}")
+    Map<String, Object> patchUser(@PathVariable("id") long id, @RequestParam("name") String name) {
+        return Map.of("patched", id + ":" + name);
+    }
+
+    @DeleteMapping("/api/users/{id}")
+    void deleteUser(@PathVariable("id") long id, HttpServletResponse resp) {
+        resp.setStatus(204);
+    }
+
+    @RequestMapping(value = "/api/ping", method = {RequestMethod.GET, RequestMethod.POST})
+    @ResponseBody
+    String ping() {
+        return "\"pong\"";
+    }
+
+    @GetMapping("/api/numbers")
+    Stream<Integer> numbers(@RequestParam("count") int count) {
+        return IntStream.range(0, count).boxed();
+    }
+
+    @GetMapping("/api/broken-numbers")
+    Stream<Integer> brokenNumbers(@RequestParam("count") int count) {
+        return IntStream.range(0, count).boxed().peek(n -> {
+            if (n == count / 2) {
+                throw new IllegalStateException("Broken at " + n);
+            }
+        });
+    }
+
+    @GetMapping("/api/letters")
+    Iterator<Map<String, String>> letters() {
+        return Stream.of("a", "b").map(s -> Map.of("letter", s)).iterator();
+    }
+
+    @GetMapping("/api/orders/{id}")
+    Map<String, Object> order(@PathVariable("id") UUID id, @RequestParam("status") Status status, @RequestParam("date") LocalDate date,
+                              @RequestParam(value = "locale", defaultValue = "en-US") Locale locale) {
+        return Map.of("order", id + "," + status + "," + date + "," + locale.toLanguageTag());
+    }
+
+    @PostMapping("/api/users")
+    List<String> createUsers(@RequestBody List<SigninObj> users) {
+        return users.stream().map(u -> u.name).toList();
+    }
+
+    @GetMapping("/api/admin")
+    SigninObj admin() {
+        AdminObj admin = new AdminObj();
+        admin.name = "Alice";
+        admin.role = "root";
+        return admin;
+    }
+
+    @GetMapping("/api/async/future")
+    CompletableFuture<Map<String, Object>> asyncFuture(@RequestParam("name") String name) {
+        return CompletableFuture.supplyAsync(() -> Map.of("name", name));
+    }
+
+    @GetMapping("/api/async/fail")
+    CompletableFuture<String> asyncFail() {
+        return CompletableFuture.failedFuture(new ServerWebInputException("Bad input."));
+    }
+
+    @Async
+    @GetMapping("/api/async/blocking")
+    Map<String, Object> asyncBlocking() {
+        return Map.of("thread", Thread.currentThread().getName());
+    }
+
+    @GetMapping("/api/events")
+    SseEmitter events(@RequestParam("count") int count) {
+        SseEmitter emitter = new SseEmitter();
+        new Thread(() -> {
+            try {
+                for (int i = 1; i <= count; i++) {
+                    emitter.send(SseEmitter.event().id(String.valueOf(i)).name("progress").data(Map.of("percent", i * 100 / count)));
+                }
+                emitter.complete();
+            } catch (IOException e) {
+                logger.warn("send event failed.", e);
+            }
+        }).start();
+        return emitter;
+    }
+
+    public enum Status {
+        OPEN, CLOSED
+    }
+
     public static class FileObj {
         public String file;
         public int length;
@@ -74,4 +179,8 @@ public class ApiController {
         public String name;
         public String password;
     }
+
+    public static class AdminObj extends SigninObj {
+        public String role;
+    }
 }
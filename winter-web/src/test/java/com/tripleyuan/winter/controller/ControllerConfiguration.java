@@ -1,11 +1,19 @@
 package com.tripleyuan.winter.controller;
 
+import com.tripleyuan.winter.annotation.Bean;
 import com.tripleyuan.winter.annotation.Configuration;
 import com.tripleyuan.winter.annotation.Import;
+import com.tripleyuan.winter.web.ConverterRegistrar;
 import com.tripleyuan.winter.web.WebMvcConfiguration;
 
+import java.util.Locale;
+
 @Configuration
 @Import(WebMvcConfiguration.class)
 public class ControllerConfiguration {
 
+    @Bean
+    ConverterRegistrar converterRegistrar() {
+        return propertyResolver -> propertyResolver.registerConverter(Locale.class, Locale::forLanguageTag);
+    }
 }
@@ -0,0 +1,54 @@
+package com.tripleyuan.winter.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonUtilsTest {
+
+    public static class Bean {
+
+        public String getName() {
+            return "Bob";
+        }
+    }
+
+    public static class BrokenBean {
+
+        public String getName() {
+            throw new IllegalStateException("broken getter");
+        }
+    }
+
+    @Test
+    void dynamicWriterAccelerated() throws IOException {
+        JsonUtils.accelerate();
+        // declared as Object, so beans are written by dynamic writer:
+        JsonUtils.TypedWriter writer = JsonUtils.writerFor(Object.class);
+        assertEquals("{\"name\":\"Bob\"}", write(writer, new Bean()));
+
+        JsonMappingException e = assertThrows(JsonMappingException.class, () -> write(writer, new BrokenBean()));
+        Throwable cause = e.getCause();
+        assertEquals("broken getter", cause.getMessage());
+        // getter is called by generated accessor of Blackbird, not by reflection:
+        assertTrue(Arrays.stream(cause.getStackTrace()).map(StackTraceElement::getClassName)
+                .takeWhile(name -> !name.equals(JsonUtils.TypedWriter.class.getName()))
+                .noneMatch(name -> name.startsWith("jdk.internal.reflect.") || name.equals(Method.class.getName())));
+    }
+
+    String write(JsonUtils.TypedWriter writer, Object value) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator gen = JsonUtils.createGenerator(output)) {
+            writer.writeValue(gen, value);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -3,6 +3,7 @@ package com.tripleyuan.winter.utils;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,4 +60,21 @@ public class PathUtilsTest {
             PathUtils.compile("/missing-left/user}/");
         });
     }
+
+    @Test
+    void splitAndParse() throws Exception {
+        assertEquals(List.of("", "test", "{userId}", ""), PathUtils.split("/test/{userId}/"));
+        assertEquals(List.of("userId", "postId"), PathUtils.getVariables("/test/{userId}/{postId}.json"));
+
+        PathUtils.Segment segment = PathUtils.parseSegment("/", "v{id}.json");
+        assertEquals("v", segment.getPrefix());
+        assertEquals("id", segment.getVariable());
+        assertEquals(".json", segment.getSuffix());
+        assertNull(PathUtils.parseSegment("/", "test").getVariable());
+
+        for (String path : List.of("/no-name/{}", "/starts-with-digit/{123}", "/invalid-name/{user-id}", "/invalid-name/{user_id}",
+                "/missing-right/{user/", "/missing-left/user}/", "/two/{a}{b}")) {
+            assertThrows(ServletException.class, () -> PathUtils.getVariables(path));
+        }
+    }
 }
@@ -13,13 +13,19 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.mock.web.MockServletContext;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -189,6 +195,319 @@ public class DispatcherServletTest {
         assertEquals(Boolean.TRUE, req.getSession().getAttribute("signout"));
     }
 
+    @Test
+    void putApiUser() throws ServletException, IOException {
+        var user = new ApiController.SigninObj();
+        user.name = "Bob";
+        var req = createMockRequest("PUT", "/api/users/1", user, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("{\"updated\":\"1:Bob\"}", resp.getContentAsString());
+    }
+
+    @Test
+    void patchApiUser() throws ServletException, IOException {
+        var req = createMockRequest("PATCH", "/api/users/1", null, Map.of("name", "Bob"));
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("{\"patched\":\"1:Bob\"}", resp.getContentAsString());
+    }
+
+    @Test
+    void deleteApiUser() throws ServletException, IOException {
+        var req = createMockRequest("DELETE", "/api/users/1", null, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(204, resp.getStatus());
+    }
+
+    @Test
+    void getApiStream() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/api/numbers", null, Map.of("count", "2500"));
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("application/json", resp.getContentType());
+        assertEquals(JsonUtils.writeJson(IntStream.range(0, 2500).boxed().toList()), resp.getContentAsString());
+    }
+
+    @Test
+    void getApiStreamBroken() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/api/broken-numbers", null, Map.of("count", "2500"));
+        var resp = createMockResponse();
+        assertThrows(IllegalStateException.class, () -> this.dispatcherServlet.service(req, resp));
+        // first elements are flushed, but array is not closed:
+        String content = resp.getContentAsString();
+        assertTrue(content.startsWith("[0,1,2,"));
+        assertFalse(content.endsWith("]"));
+        assertThrows(UncheckedIOException.class, () -> JsonUtils.readJson(content, List.class));
+    }
+
+    @Test
+    void getApiIterator() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/api/letters", null, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("[{\"letter\":\"a\"},{\"letter\":\"b\"}]", resp.getContentAsString());
+    }
+
+    @Test
+    void getApiOrder() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/api/orders/5f0c8e2a-3b1d-4c6e-9a7f-2d4b6c8e0a1b", null,
+                Map.of("status", "CLOSED", "date", "2024-02-29", "locale", "zh-CN"));
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("{\"order\":\"5f0c8e2a-3b1d-4c6e-9a7f-2d4b6c8e0a1b,CLOSED,2024-02-29,zh-CN\"}", resp.getContentAsString());
+
+        // default value is converted too
+        req = createMockRequest("GET", "/api/orders/5f0c8e2a-3b1d-4c6e-9a7f-2d4b6c8e0a1b", null, Map.of("status", "OPEN", "date", "2024-03-01"));
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals("{\"order\":\"5f0c8e2a-3b1d-4c6e-9a7f-2d4b6c8e0a1b,OPEN,2024-03-01,en-US\"}", resp.getContentAsString());
+    }
+
+    @Test
+    void postApiGenericBody() throws ServletException, IOException {
+        var req = createMockRequest("POST", "/api/users", List.of(Map.of("name", "Bob"), Map.of("name", "Alice")), null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("[\"Bob\",\"Alice\"]", resp.getContentAsString());
+    }
+
+    @Test
+    void getApiSubclass() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/api/admin", null, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        Map<String, Object> admin = JsonUtils.readJsonAsMap(resp.getContentAsString());
+        assertEquals("Alice", admin.get("name"));
+        assertEquals("root", admin.get("role"));
+    }
+
+    @Test
+    void getStaticResource() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/static/app.js", null, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals(56, resp.getContentLength());
+        assertTrue(resp.getContentAsString().startsWith("function hello()"));
+        assertEquals("no-cache", resp.getHeader("Cache-Control"));
+        String etag = resp.getHeader("ETag");
+        assertNotNull(etag);
+        String lastModified = resp.getHeader("Last-Modified");
+        assertNotNull(lastModified);
+
+        req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("If-None-Match", etag);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(304, resp.getStatus());
+        assertEquals("", resp.getContentAsString());
+
+        req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("If-Modified-Since", lastModified);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(304, resp.getStatus());
+
+        req = createMockRequest("GET", "/static/not-exist.js", null, null);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(404, resp.getStatus());
+    }
+
+    @Test
+    void getStaticResourceRange() throws ServletException, IOException {
+        var req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("Range", "bytes=0-7");
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(206, resp.getStatus());
+        assertEquals("bytes 0-7/56", resp.getHeader("Content-Range"));
+        assertEquals("function", resp.getContentAsString());
+
+        req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("Range", "bytes=-2");
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(206, resp.getStatus());
+        assertEquals("}\n", resp.getContentAsString());
+
+        // If-Range does not match, send whole content
+        req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("Range", "bytes=0-7");
+        req.addHeader("If-Range", "\"outdated\"");
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals(56, resp.getContentLength());
+
+        req = createMockRequest("GET", "/static/app.js", null, null);
+        req.addHeader("Range", "bytes=100-");
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(416, resp.getStatus());
+        assertEquals("bytes */56", resp.getHeader("Content-Range"));
+    }
+
+    @Test
+    void getStaticResourceGzip() throws ServletException, IOException {
+        byte[] css = Files.readAllBytes(Paths.get("./src/test/resources/static/style.css"));
+        var req = createMockRequest("GET", "/static/style.css", null, null);
+        req.addHeader("Accept-Encoding", "gzip, deflate");
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", resp.getHeader("Vary"));
+        assertTrue(resp.getContentLength() < css.length);
+        assertArrayEquals(css, new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())).readAllBytes());
+        String etag = resp.getHeader("ETag");
+        assertTrue(etag.endsWith("-gzip\""));
+
+        // etag of gzip representation
+        req = createMockRequest("GET", "/static/style.css", null, null);
+        req.addHeader("Accept-Encoding", "gzip");
+        req.addHeader("If-None-Match", etag);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(304, resp.getStatus());
+
+        // not accepted
+        req = createMockRequest("GET", "/static/style.css", null, null);
+        req.addHeader("Accept-Encoding", "gzip;q=0, deflate");
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", resp.getHeader("Vary"));
+        assertArrayEquals(css, resp.getContentAsByteArray());
+
+        // range is served from uncompressed content
+        req = createMockRequest("GET", "/static/style.css", null, null);
+        req.addHeader("Accept-Encoding", "gzip");
+        req.addHeader("Range", "bytes=0-7");
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(206, resp.getStatus());
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(".item-0 ", resp.getContentAsString());
+
+        // precompressed sibling
+        req = createMockRequest("GET", "/static/lib.js", null, null);
+        req.addHeader("Accept-Encoding", "br, gzip");
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        assertArrayEquals(Files.readAllBytes(Paths.get("./src/test/resources/static/lib.js.gz")), resp.getContentAsByteArray());
+    }
+
+    @Test
+    void getApiAsyncFuture() throws Exception {
+        var req = createMockRequest("GET", "/api/async/future", null, Map.of("name", "Bob"));
+        req.setAsyncSupported(true);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        awaitAsync(req);
+        assertEquals(200, resp.getStatus());
+        assertEquals("{\"name\":\"Bob\"}", resp.getContentAsString());
+
+        req = createMockRequest("GET", "/api/async/fail", null, null);
+        req.setAsyncSupported(true);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        awaitAsync(req);
+        assertEquals(400, resp.getStatus());
+    }
+
+    @Test
+    void getApiAsyncInvoke() throws Exception {
+        var req = createMockRequest("GET", "/api/async/blocking", null, null);
+        req.setAsyncSupported(true);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        awaitAsync(req);
+        assertEquals(200, resp.getStatus());
+        String thread = (String) JsonUtils.readJsonAsMap(resp.getContentAsString()).get("thread");
+        assertNotEquals(Thread.currentThread().getName(), thread);
+
+        // run in container thread if async is not supported
+        req = createMockRequest("GET", "/api/async/blocking", null, null);
+        req.setAsyncSupported(false);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertFalse(req.isAsyncStarted());
+        thread = (String) JsonUtils.readJsonAsMap(resp.getContentAsString()).get("thread");
+        assertEquals(Thread.currentThread().getName(), thread);
+    }
+
+    @Test
+    void getApiEvents() throws Exception {
+        var req = createMockRequest("GET", "/api/events", null, Map.of("count", "2"));
+        req.setAsyncSupported(true);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        awaitAsync(req);
+        assertEquals(200, resp.getStatus());
+        assertEquals("text/event-stream;charset=UTF-8", resp.getContentType());
+        assertEquals("no-cache", resp.getHeader("Cache-Control"));
+        assertEquals("id:1\nevent:progress\ndata:{\"percent\":50}\n\nid:2\nevent:progress\ndata:{\"percent\":100}\n\n",
+                resp.getContentAsString());
+
+        // hold container thread until completed if async is not supported
+        req = createMockRequest("GET", "/api/events", null, Map.of("count", "1"));
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals("id:1\nevent:progress\ndata:{\"percent\":100}\n\n", resp.getContentAsString());
+    }
+
+    void awaitAsync(MockHttpServletRequest req) throws InterruptedException {
+        for (int i = 0; i < 250 && req.isAsyncStarted(); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(req.isAsyncStarted(), "async request is not completed.");
+    }
+
+    @Test
+    void methodNotAllowed() throws ServletException, IOException {
+        var req = createMockRequest("POST", "/api/users/1", null, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(405, resp.getStatus());
+        assertEquals("PUT, PATCH, DELETE, OPTIONS", resp.getHeader("Allow"));
+
+        req = createMockRequest("GET", "/api/not-found", null, null);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(404, resp.getStatus());
+    }
+
+    @Test
+    void headAndOptions() throws ServletException, IOException {
+        var req = createMockRequest("HEAD", "/api/hello/Bob", null, null);
+        var resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("application/json", resp.getContentType());
+
+        req = createMockRequest("OPTIONS", "/api/ping", null, null);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("GET, HEAD, POST, OPTIONS", resp.getHeader("Allow"));
+
+        req = createMockRequest("POST", "/api/ping", null, null);
+        resp = createMockResponse();
+        this.dispatcherServlet.service(req, resp);
+        assertEquals("\"pong\"", resp.getContentAsString());
+    }
+
     @BeforeEach
     void init() throws ServletException {
         this.ctx = createMockServletContext();
@@ -204,7 +523,7 @@ public class DispatcherServletTest {
         ps.put("app.title", "Scan App");
         ps.put("app.version", "v1.0");
         ps.put("summer.web.favicon-path", "/icon/favicon.ico");
-        ps.put("summer.web.freemarker.template-path", "/WEB-INF/templates");
+        ps.put("winter.web.freemarker.template-path", "/WEB-INF/templates");
         ps.put("jdbc.username", "sa");
         ps.put("jdbc.password", "");
         var pr = new PropertyResolver(ps);
@@ -221,11 +540,11 @@ public class DispatcherServletTest {
 
     MockHttpServletRequest createMockRequest(String method, String path, Object body, Map<String, String> params) {
         var req = new MockHttpServletRequest(this.ctx, method, path);
-        if (method.equals("GET") && params != null) {
+        if ((method.equals("GET") || method.equals("HEAD")) && params != null) {
             params.keySet().forEach(key -> {
                 req.setParameter(key, params.get(key));
             });
-        } else if (method.equals("POST")) {
+        } else if (List.of("POST", "PUT", "PATCH", "DELETE").contains(method)) {
             if (body != null) {
                 req.setContentType("application/json");
                 req.setContent(JsonUtils.writeJson(body).getBytes(StandardCharsets.UTF_8));
@@ -0,0 +1,75 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.exception.ServerErrorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreeMarkerViewResolverTest {
+
+    @TempDir
+    Path root;
+    Path template;
+    MockServletContext ctx;
+
+    @BeforeEach
+    void init() throws IOException {
+        Files.createDirectories(root.resolve("templates"));
+        this.template = root.resolve("templates/hello.html");
+        Files.writeString(this.template, "<p>Hello, ${name}</p>");
+        this.ctx = new MockServletContext("file:" + root);
+    }
+
+    @Test
+    void renderEscaped() throws Exception {
+        var resolver = createResolver(false);
+        assertEquals("<p>Hello, &lt;Bob&gt;</p>", render(resolver, "/hello.html", Map.of("name", "<Bob>")));
+        assertThrows(ServerErrorException.class, () -> render(resolver, "/missing.html", Map.of()));
+    }
+
+    @Test
+    void reloadInDevMode() throws Exception {
+        var resolver = createResolver(true);
+        assertEquals("<p>Hello, Bob</p>", render(resolver, "/hello.html", Map.of("name", "Bob")));
+        modifyTemplate("<p>Hi, ${name}</p>");
+        assertEquals("<p>Hi, Bob</p>", render(resolver, "/hello.html", Map.of("name", "Bob")));
+    }
+
+    @Test
+    void cachedInProductionMode() throws Exception {
+        var resolver = createResolver(false);
+        assertEquals("<p>Hello, Bob</p>", render(resolver, "/hello.html", Map.of("name", "Bob")));
+        modifyTemplate("<p>Hi, ${name}</p>");
+        assertEquals("<p>Hello, Bob</p>", render(resolver, "/hello.html", Map.of("name", "Bob")));
+    }
+
+    FreeMarkerViewResolver createResolver(boolean devMode) {
+        var resolver = new FreeMarkerViewResolver(this.ctx, "/templates", "UTF-8", devMode);
+        resolver.init();
+        return resolver;
+    }
+
+    String render(ViewResolver resolver, String view, Map<String, Object> model) throws Exception {
+        var resp = new MockHttpServletResponse();
+        resp.setCharacterEncoding("UTF-8");
+        resolver.render(view, model, new MockHttpServletRequest(this.ctx), resp);
+        return resp.getContentAsString();
+    }
+
+    void modifyTemplate(String content) throws IOException {
+        FileTime lastModified = Files.getLastModifiedTime(this.template);
+        Files.writeString(this.template, content);
+        Files.setLastModifiedTime(this.template, FileTime.fromMillis(lastModified.toMillis() + 2000));
+    }
+}
@@ -0,0 +1,217 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.utils.JsonUtils;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GzipFilterTest {
+
+    GzipFilterRegistrationBean registration;
+    GzipFilter filter;
+
+    // about 40 KB
+    String largeJson = JsonUtils.writeJson(IntStream.range(0, 1000).mapToObj(n -> Map.of("id", n, "name", "user-" + n)).toList());
+
+    @BeforeEach
+    void init() {
+        this.registration = new GzipFilterRegistrationBean(List.of("/api/*"), 1024, Set.of("application/json", "text/*"));
+        this.filter = (GzipFilter) this.registration.getFilter();
+    }
+
+    @Test
+    void compressLargeResponse() throws ServletException, IOException {
+        var resp = doFilter("gzip, deflate", (req, response) -> {
+            response.setContentType("application/json");
+            response.getOutputStream().write(largeJson.getBytes(StandardCharsets.UTF_8));
+        });
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", resp.getHeader("Vary"));
+        assertEquals(largeJson, gunzip(resp.getContentAsByteArray()));
+
+        GzipFilter.Metrics metrics = this.registration.getMetrics();
+        assertEquals(1, metrics.getCompressedResponses());
+        assertEquals(largeJson.length(), metrics.getUncompressedBytes());
+        assertEquals(resp.getContentAsByteArray().length, metrics.getCompressedBytes());
+        assertTrue(metrics.getCompressionRatio() < 0.3);
+    }
+
+    @Test
+    void compressByWriter() throws ServletException, IOException {
+        var resp = doFilter("gzip", (req, response) -> {
+            response.setContentType("text/plain;charset=UTF-8");
+            response.setContentLength(largeJson.length());
+            response.getWriter().write(largeJson);
+        });
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        // length of uncompressed content is dropped
+        assertNull(resp.getHeader("Content-Length"));
+        assertEquals(largeJson, gunzip(resp.getContentAsByteArray()));
+    }
+
+    @Test
+    void reuseDeflater() throws ServletException, IOException {
+        for (int i = 0; i < 3; i++) {
+            var resp = doFilter("gzip", (req, response) -> {
+                response.setContentType("application/json");
+                response.getOutputStream().write(largeJson.getBytes(StandardCharsets.UTF_8));
+            });
+            assertEquals(largeJson, gunzip(resp.getContentAsByteArray()));
+        }
+        assertEquals(3, this.registration.getMetrics().getCompressedResponses());
+    }
+
+    @Test
+    void smallResponseNotCompressed() throws ServletException, IOException {
+        var resp = doFilter("gzip", (req, response) -> {
+            response.setContentType("application/json");
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        });
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", resp.getHeader("Vary"));
+        assertEquals(8, resp.getContentLength());
+        assertEquals("{\"id\":1}", resp.getContentAsString());
+        assertEquals(0, this.registration.getMetrics().getCompressedResponses());
+    }
+
+    @Test
+    void contentTypeNotMatched() throws ServletException, IOException {
+        var resp = doFilter("gzip", (req, response) -> {
+            response.setContentType("image/png");
+            response.getOutputStream().write(largeJson.getBytes(StandardCharsets.UTF_8));
+        });
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertNull(resp.getHeader("Vary"));
+        assertEquals(largeJson, resp.getContentAsString());
+    }
+
+    @Test
+    void gzipNotAccepted() throws ServletException, IOException {
+        var resp = doFilter("deflate, gzip;q=0", (req, response) -> {
+            response.setContentType("application/json");
+            response.getOutputStream().write(largeJson.getBytes(StandardCharsets.UTF_8));
+        });
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(largeJson, resp.getContentAsString());
+    }
+
+    @Test
+    void finishAsyncResponseOnComplete() throws ServletException, IOException {
+        assertTrue(this.registration.isAsyncSupported());
+        var req = new MockHttpServletRequest("GET", "/api/users");
+        req.setAsyncSupported(true);
+        req.addHeader("Accept-Encoding", "gzip");
+        var resp = new MockHttpServletResponse();
+        AtomicReference<AsyncContext> asyncContext = new AtomicReference<>();
+        this.filter.doFilter(req, resp, (request, response) -> {
+            response.setContentType("application/json");
+            asyncContext.set(request.startAsync(request, response));
+        });
+        // written after chain returned:
+        assertEquals(0, this.registration.getMetrics().getCompressedResponses());
+        ServletResponse response = asyncContext.get().getResponse();
+        response.getOutputStream().write(largeJson.getBytes(StandardCharsets.UTF_8));
+        asyncContext.get().complete();
+
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        assertEquals(largeJson, gunzip(resp.getContentAsByteArray()));
+        assertEquals(1, this.registration.getMetrics().getCompressedResponses());
+    }
+
+    @Test
+    void eventStreamNotCompressed() throws ServletException, IOException {
+        var resp = doFilter("gzip", (req, response) -> {
+            // matches "text/*":
+            response.setContentType(SseEmitter.CONTENT_TYPE);
+            response.getOutputStream().write(largeJson.getBytes(StandardCharsets.UTF_8));
+        });
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(largeJson, resp.getContentAsString());
+    }
+
+    @Test
+    void writeListenerPassedThrough() throws ServletException, IOException {
+        var req = new MockHttpServletRequest("GET", "/api/users");
+        req.addHeader("Accept-Encoding", "gzip");
+        var output = new ByteArrayOutputStream();
+        List<WriteListener> listeners = new ArrayList<>();
+        var resp = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        listeners.add(writeListener);
+                    }
+
+                    @Override
+                    public void write(int b) {
+                        output.write(b);
+                    }
+                };
+            }
+        };
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        this.filter.doFilter(req, resp, (request, response) -> {
+            response.setContentType("application/json");
+            ServletOutputStream out = response.getOutputStream();
+            out.write('[');
+            out.setWriteListener(listener);
+            assertTrue(out.isReady());
+            out.write(largeJson.substring(1).getBytes(StandardCharsets.UTF_8));
+        });
+        assertEquals(List.of(listener), listeners);
+        // not compressed:
+        assertNull(resp.getHeader("Content-Encoding"));
+        assertEquals(largeJson, output.toString(StandardCharsets.UTF_8));
+    }
+
+    MockHttpServletResponse doFilter(String acceptEncoding, FilterChain chain) throws ServletException, IOException {
+        var req = new MockHttpServletRequest("GET", "/api/users");
+        req.addHeader("Accept-Encoding", acceptEncoding);
+        var resp = new MockHttpServletResponse();
+        this.filter.doFilter(req, resp, chain);
+        return resp;
+    }
+
+    String gunzip(byte[] data) throws IOException {
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.tripleyuan.winter.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare reflection call and generated HandlerInvoker used by Dispatcher to invoke handler methods.
+ * <p>
+ * Run main() with test classpath, e.g. from IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerInvokeBenchmark {
+
+    public static class Handler {
+
+        public String args0() {
+            return "hello";
+        }
+
+        public String args2(String name, int count) {
+            return name;
+        }
+
+        public String args5(String name, int count, long time, boolean flag, Double score) {
+            return name;
+        }
+
+        public String args8(String name, int count, long time, boolean flag, Double score, String a, String b, String c) {
+            return name;
+        }
+    }
+
+    final Handler handler = new Handler();
+
+    final Method method0 = method("args0");
+    final Method method2 = method("args2", String.class, int.class);
+    final Method method5 = method("args5", String.class, int.class, long.class, boolean.class, Double.class);
+    final Method method8 = method("args8", String.class, int.class, long.class, boolean.class, Double.class, String.class,
+            String.class, String.class);
+    final HandlerInvoker invoker0 = HandlerInvoker.of(handler, method0);
+    final HandlerInvoker invoker2 = HandlerInvoker.of(handler, method2);
+    final HandlerInvoker invoker5 = HandlerInvoker.of(handler, method5);
+    // more than 6 parameters, fallback to reflection:
+    final HandlerInvoker invoker8 = HandlerInvoker.of(handler, method8);
+
+    final Object[] args0 = new Object[0];
+    final Object[] args2 = new Object[]{"Bob", 2};
+    final Object[] args5 = new Object[]{"Bob", 2, 3L, true, 4.5};
+    final Object[] args8 = new Object[]{"Bob", 2, 3L, true, 4.5, "a", "b", "c"};
+
+    static Method method(String name, Class<?>... parameterTypes) {
+        try {
+            return Handler.class.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Object reflection0() throws Exception {
+        return method0.invoke(handler, args0);
+    }
+
+    @Benchmark
+    public Object generated0() throws Exception {
+        return invoker0.invoke(args0);
+    }
+
+    @Benchmark
+    public Object reflection2() throws Exception {
+        return method2.invoke(handler, args2);
+    }
+
+    @Benchmark
+    public Object generated2() throws Exception {
+        return invoker2.invoke(args2);
+    }
+
+    @Benchmark
+    public Object reflection5() throws Exception {
+        return method5.invoke(handler, args5);
+    }
+
+    @Benchmark
+    public Object generated5() throws Exception {
+        return invoker5.invoke(args5);
+    }
+
+    @Benchmark
+    public Object reflection8() throws Exception {
+        return method8.invoke(handler, args8);
+    }
+
+    @Benchmark
+    public Object fallback8() throws Exception {
+        return invoker8.invoke(args8);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HandlerInvokeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
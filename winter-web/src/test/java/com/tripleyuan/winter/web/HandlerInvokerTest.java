@@ -0,0 +1,78 @@
+package com.tripleyuan.winter.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HandlerInvokerTest {
+
+    public static class Handler {
+
+        String last;
+
+        public String hello() {
+            return "hello";
+        }
+
+        public long sum(int a, Long b, long c, Integer d) {
+            return a + b + c + d;
+        }
+
+        public void save(String value) {
+            this.last = value;
+        }
+
+        public String fail(String message) throws IOException {
+            throw new IOException(message);
+        }
+
+        public String many(String a, String b, String c, String d, String e, String f, String g) {
+            return a + b + c + d + e + f + g;
+        }
+
+        String hidden(String name) {
+            return "hidden " + name;
+        }
+    }
+
+    Handler handler = new Handler();
+
+    @Test
+    public void generated() throws Exception {
+        assertThat(invoker("hello").invoke(new Object[0])).isEqualTo("hello");
+        assertThat(invoker("sum", int.class, Long.class, long.class, Integer.class).invoke(new Object[]{1, 2L, 3L, 4})).isEqualTo(10L);
+        assertThat(invoker("save", String.class).invoke(new Object[]{"Bob"})).isNull();
+        assertThat(handler.last).isEqualTo("Bob");
+        // package-private method by private lookup:
+        assertThat(invoker("hidden", String.class).invoke(new Object[]{"Bob"})).isEqualTo("hidden Bob");
+    }
+
+    @Test
+    public void generatedExceptionNotWrapped() throws Exception {
+        HandlerInvoker invoker = invoker("fail", String.class);
+        assertThatThrownBy(() -> invoker.invoke(new Object[]{"oops"})).isInstanceOf(IOException.class).hasMessage("oops")
+                // called directly, not by reflection:
+                .satisfies(e -> assertThat(Arrays.stream(e.getStackTrace()).map(StackTraceElement::getClassName)
+                        .takeWhile(name -> !name.equals(HandlerInvokerTest.class.getName())))
+                        .noneMatch(name -> name.startsWith("jdk.internal.reflect.") || name.equals(Method.class.getName())));
+        assertThatThrownBy(() -> invoker.invoke(new Object[]{123})).isInstanceOf(ClassCastException.class);
+    }
+
+    @Test
+    public void reflectiveFallback() throws Exception {
+        HandlerInvoker invoker = invoker("many", String.class, String.class, String.class, String.class, String.class, String.class, String.class);
+        assertThat(invoker.invoke(new Object[]{"a", "b", "c", "d", "e", "f", "g"})).isEqualTo("abcdefg");
+
+        HandlerInvoker fail = HandlerInvoker.reflective(handler, Handler.class.getMethod("fail", String.class));
+        assertThatThrownBy(() -> fail.invoke(new Object[]{"oops"})).isInstanceOf(IOException.class).hasMessage("oops");
+    }
+
+    HandlerInvoker invoker(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return HandlerInvoker.of(handler, Handler.class.getDeclaredMethod(name, parameterTypes));
+    }
+}
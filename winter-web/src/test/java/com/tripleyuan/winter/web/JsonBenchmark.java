@@ -0,0 +1,167 @@
+package com.tripleyuan.winter.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tripleyuan.winter.utils.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare json encode / decode of typical DTO with and without {@code winter.web.json.accelerated}.
+ * <p>
+ * JsonUtils.OBJECT_MAPPER is shared, so each param runs in its own fork. Run main() with test classpath, e.g. from IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    public static class Item {
+        public long productId;
+        public String name;
+        public int quantity;
+        public BigDecimal price;
+    }
+
+    public static class Order {
+        private long id;
+        private String customer;
+        private String address;
+        private boolean paid;
+        private double discount;
+        private long createdAt;
+        private List<Item> items;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public void setCustomer(String customer) {
+            this.customer = customer;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+
+        public boolean isPaid() {
+            return paid;
+        }
+
+        public void setPaid(boolean paid) {
+            this.paid = paid;
+        }
+
+        public double getDiscount() {
+            return discount;
+        }
+
+        public void setDiscount(double discount) {
+            this.discount = discount;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public void setItems(List<Item> items) {
+            this.items = items;
+        }
+    }
+
+    @Param({"false", "true"})
+    boolean accelerated;
+
+    Order order;
+    byte[] json;
+    ObjectWriter writer;
+    ObjectReader reader;
+    // declared as Object, so value is written by its runtime type
+    JsonUtils.TypedWriter dynamicWriter;
+    ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+
+    @Setup
+    public void setUp() throws Exception {
+        if (accelerated) {
+            JsonUtils.accelerate();
+        }
+        order = new Order();
+        order.setId(123456789L);
+        order.setCustomer("Bob");
+        order.setAddress("No.1 Main Street, Springfield");
+        order.setPaid(true);
+        order.setDiscount(0.85);
+        order.setCreatedAt(1709209845000L);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Item item = new Item();
+            item.productId = 1000 + i;
+            item.name = "Product-" + i;
+            item.quantity = i + 1;
+            item.price = new BigDecimal("19.99");
+            items.add(item);
+        }
+        order.setItems(items);
+
+        // bound like Dispatcher does
+        writer = JsonUtils.OBJECT_MAPPER.writerFor(Order.class);
+        reader = JsonUtils.OBJECT_MAPPER.readerFor(Order.class);
+        json = writer.writeValueAsBytes(order);
+        dynamicWriter = JsonUtils.writerFor(Object.class);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return writer.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public int encodeDynamic() throws Exception {
+        output.reset();
+        try (JsonGenerator gen = JsonUtils.createGenerator(output)) {
+            dynamicWriter.writeValue(gen, order);
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    public Order decode() throws Exception {
+        return reader.readValue(json);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,191 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.context.AnnotationConfigApplicationContext;
+import com.tripleyuan.winter.controller.ControllerConfiguration;
+import com.tripleyuan.winter.io.PropertyResolver;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestBodyReaderTest {
+
+    DispatcherServlet dispatcherServlet;
+    MockServletContext ctx;
+
+    @BeforeEach
+    void init() throws ServletException {
+        Path path = Paths.get("./src/test/resources").toAbsolutePath().normalize();
+        this.ctx = new MockServletContext("file://" + path);
+        WebMvcConfiguration.setServletContext(this.ctx);
+        var ps = new Properties();
+        ps.put("app.title", "Scan App");
+        ps.put("app.version", "v1.0");
+        ps.put("winter.web.body.non-blocking", "true");
+        ps.put("winter.web.body.max-size", "10000");
+        var propertyResolver = new PropertyResolver(ps);
+        var applicationContext = new AnnotationConfigApplicationContext(ControllerConfiguration.class, propertyResolver);
+        this.dispatcherServlet = new DispatcherServlet(applicationContext, propertyResolver);
+        this.dispatcherServlet.init();
+    }
+
+    @Test
+    void readBodyInChunks() throws Exception {
+        var input = new ChunkedInputStream();
+        var resp = new MockHttpServletResponse();
+        var req = createRequest(input, -1, resp);
+        this.dispatcherServlet.service(req, resp);
+        // waiting for body
+        assertTrue(req.isAsyncStarted());
+        assertNotNull(input.listener);
+
+        input.push("[{\"name\":\"Bob\",\"pass");
+        input.push("word\":\"x\"},");
+        assertEquals("", resp.getContentAsString());
+        // larger than one buffer
+        input.push("{\"name\":\"" + "A".repeat(RequestBodyReader.BUFFER_SIZE) + "\"}]");
+        input.finish();
+        assertEquals(200, resp.getStatus());
+        assertEquals("[\"Bob\",\"" + "A".repeat(RequestBodyReader.BUFFER_SIZE) + "\"]", resp.getContentAsString());
+    }
+
+    @Test
+    void bodyTooLarge() throws Exception {
+        // by Content-Length
+        var resp = new MockHttpServletResponse();
+        var req = createRequest(new ChunkedInputStream(), 20000, resp);
+        this.dispatcherServlet.service(req, resp);
+        assertEquals(413, resp.getStatus());
+        assertFalse(req.isAsyncStarted());
+
+        // by chunked body
+        var input = new ChunkedInputStream();
+        resp = new MockHttpServletResponse();
+        req = createRequest(input, -1, resp);
+        this.dispatcherServlet.service(req, resp);
+        input.push("[" + "\"x\",".repeat(2000));
+        input.push("\"x\",".repeat(2000));
+        assertEquals(413, resp.getStatus());
+        assertFalse(req.isAsyncStarted());
+    }
+
+    @Test
+    void readBlockingIfNotSupported() throws Exception {
+        // input stream of MockHttpServletRequest does not support ReadListener
+        var resp = new MockHttpServletResponse();
+        var req = createRequest(null, -1, resp);
+        req.setContent("[{\"name\":\"Alice\"}]".getBytes(StandardCharsets.UTF_8));
+        this.dispatcherServlet.service(req, resp);
+        assertEquals("[\"Alice\"]", resp.getContentAsString());
+    }
+
+    // request is dispatched again by AsyncContext.dispatch()
+    MockHttpServletRequest createRequest(ServletInputStream input, long contentLength, MockHttpServletResponse resp) {
+        var req = new MockHttpServletRequest(this.ctx, "POST", "/api/users") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return input != null ? input : super.getInputStream();
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return input != null ? contentLength : super.getContentLengthLong();
+            }
+
+            @Override
+            public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+                var asyncContext = (MockAsyncContext) super.startAsync(request, response);
+                asyncContext.addDispatchHandler(() -> redispatch(this, resp));
+                return asyncContext;
+            }
+        };
+        req.setAsyncSupported(true);
+        req.setContentType("application/json");
+        return req;
+    }
+
+    void redispatch(MockHttpServletRequest req, MockHttpServletResponse resp) {
+        req.setAsyncStarted(false);
+        req.setDispatcherType(DispatcherType.ASYNC);
+        try {
+            this.dispatcherServlet.service(req, resp);
+        } catch (ServletException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // data arrives when pushed by test
+    static class ChunkedInputStream extends ServletInputStream {
+
+        final Deque<byte[]> chunks = new ArrayDeque<>();
+        boolean eof = false;
+        ReadListener listener;
+
+        void push(String s) throws IOException {
+            chunks.add(s.getBytes(StandardCharsets.UTF_8));
+            listener.onDataAvailable();
+        }
+
+        void finish() throws IOException {
+            eof = true;
+            listener.onDataAvailable();
+            listener.onAllDataRead();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return eof && chunks.isEmpty();
+        }
+
+        @Override
+        public boolean isReady() {
+            return eof || !chunks.isEmpty();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            byte[] chunk = chunks.poll();
+            if (chunk == null) {
+                return eof ? -1 : 0;
+            }
+            int n = Math.min(len, chunk.length);
+            System.arraycopy(chunk, 0, b, off, n);
+            if (n < chunk.length) {
+                byte[] rest = new byte[chunk.length - n];
+                System.arraycopy(chunk, n, rest, 0, rest.length);
+                chunks.addFirst(rest);
+            }
+            return n;
+        }
+
+        @Override
+        public int read() {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == 1 ? b[0] & 0xff : -1;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tripleyuan.winter.web;
+
+import com.tripleyuan.winter.utils.PathUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compare linear regex scan and Router, when request hits the last route or no route, with different route count.
+ * <p>
+ * Run main() with test classpath, e.g. from IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+    @Param({"10", "100", "600", "2000"})
+    int routes;
+
+    List<Pattern> patterns;
+    Router<Integer> router;
+
+    String lastPath;
+    String missingPath = "/api/missing/12345/items";
+
+    @Setup
+    public void setUp() throws Exception {
+        patterns = new ArrayList<>(routes);
+        router = new Router<>();
+        for (int i = 0; i < routes; i++) {
+            String path = "/api/resource" + i + "/{id}/items/{itemId}";
+            patterns.add(PathUtils.compile(path));
+            router.add(path, i);
+        }
+        lastPath = "/api/resource" + (routes - 1) + "/12345/items/678";
+    }
+
+    @Benchmark
+    public Object regexLast() {
+        return regexMatch(lastPath);
+    }
+
+    @Benchmark
+    public Object routerLast() {
+        return router.match(lastPath);
+    }
+
+    @Benchmark
+    public Object regexMissing() {
+        return regexMatch(missingPath);
+    }
+
+    @Benchmark
+    public Object routerMissing() {
+        return router.match(missingPath);
+    }
+
+    Matcher regexMatch(String path) {
+        for (Pattern p : patterns) {
+            Matcher m = p.matcher(path);
+            if (m.matches()) {
+                return m;
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RouterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
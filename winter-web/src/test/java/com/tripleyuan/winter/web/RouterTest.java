@@ -0,0 +1,64 @@
+package com.tripleyuan.winter.web;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RouterTest {
+
+    @Test
+    public void matchStaticAndVariables() throws ServletException {
+        Router<String> router = new Router<>();
+        router.add("/", "index");
+        router.add("/api/hello/{name}", "hello");
+        router.add("/api/hello/me", "me");
+        router.add("/users/{userId}/posts/{postId}", "post");
+        router.add("/files/{name}.json", "json");
+        router.add("/files/{name}", "file");
+
+        assertMatch(router, "/", "index");
+        assertMatch(router, "/api/hello/Bob", "hello", "Bob");
+        // static before variable:
+        assertMatch(router, "/api/hello/me", "me");
+        // empty variable like [^/]*:
+        assertMatch(router, "/api/hello/", "hello", "");
+        assertMatch(router, "/users/12345/posts/a123", "post", "12345", "a123");
+        assertMatch(router, "/files/data.json", "json", "data");
+        assertMatch(router, "/files/data.xml", "file", "data.xml");
+
+        assertThat(router.match("/api/hello")).isNull();
+        assertThat(router.match("/api/hello/Bob/more")).isNull();
+        assertThat(router.match("/users/12345/posts")).isNull();
+        // no regex:
+        assertThat(router.match("/api.hello/Bob")).isNull();
+    }
+
+    @Test
+    public void backtrack() throws ServletException {
+        Router<String> router = new Router<>();
+        router.add("/a/b/c", "static");
+        router.add("/a/{x}/d", "variable");
+        assertMatch(router, "/a/b/c", "static");
+        assertMatch(router, "/a/b/d", "variable", "b");
+    }
+
+    @Test
+    public void duplicateRoute() throws ServletException {
+        Router<String> router = new Router<>();
+        router.add("/users/{id}", "a");
+        assertThatThrownBy(() -> router.add("/users/{name}", "b"))
+                .isInstanceOf(ServletException.class)
+                .hasMessage("Duplicate route: /users/{name}");
+        assertThat(router.computeIfAbsent("/users/{name}", () -> "c")).isEqualTo("a");
+        assertThatThrownBy(() -> router.add("/users/{user-id}", "b")).isInstanceOf(ServletException.class);
+    }
+
+    void assertMatch(Router<String> router, String path, String value, String... variables) {
+        Router.Match<String> match = router.match(path);
+        assertThat(match).isNotNull();
+        assertThat(match.getValue()).isEqualTo(value);
+        assertThat(match.getVariables()).containsExactly(variables);
+    }
+}
@@ -0,0 +1,185 @@
+package com.tripleyuan.winter.web;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SseEmitterTest {
+
+    ScheduledExecutorService scheduler;
+    MockHttpServletRequest req;
+    MockHttpServletResponse resp;
+    TestOutputStream output;
+
+    @BeforeEach
+    void init() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.req = new MockHttpServletRequest("GET", "/events");
+        this.req.setAsyncSupported(true);
+        this.output = new TestOutputStream();
+        this.resp = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return output;
+            }
+        };
+    }
+
+    @AfterEach
+    void destroy() {
+        this.scheduler.shutdownNow();
+    }
+
+    @Test
+    void eventFormat() {
+        var event = SseEmitter.event().id("7").name("update").retry(3000).data("line1\nline2");
+        assertEquals("id:7\nevent:update\nretry:3000\ndata:line1\ndata:line2\n\n", new String(event.toBytes(), StandardCharsets.UTF_8));
+        assertEquals("data:{\"ok\":true}\n\n", new String(SseEmitter.event().data(Map.of("ok", true)).toBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeWhenReady() throws IOException {
+        var emitter = new SseEmitter();
+        var completed = new AtomicReference<Boolean>(false);
+        emitter.onCompletion(() -> completed.set(true));
+        // sent before started
+        emitter.send("a");
+        this.output.ready = false;
+        emitter.start(req, resp, 0, scheduler, 0);
+        assertTrue(req.isAsyncStarted());
+        emitter.send("b");
+        emitter.complete();
+        assertEquals("", this.output.content());
+        assertFalse(completed.get());
+
+        // queued events are written and flushed together
+        this.output.ready = true;
+        this.output.listener.onWritePossible();
+        assertEquals("data:a\n\ndata:b\n\n", this.output.content());
+        assertEquals(1, this.output.flushes);
+        assertTrue(completed.get());
+        assertTrue(emitter.isClosed());
+        assertFalse(req.isAsyncStarted());
+    }
+
+    @Test
+    void clientTooSlow() throws IOException {
+        var emitter = new SseEmitter();
+        var error = new AtomicReference<Throwable>();
+        emitter.onError(error::set);
+        emitter.setMaxPendingBytes(16);
+        this.output.ready = false;
+        emitter.start(req, resp, 0, scheduler, 0);
+        emitter.send("hello");
+        assertThrows(IOException.class, () -> emitter.send("too much data"));
+        assertNotNull(error.get());
+        assertTrue(emitter.isClosed());
+        assertFalse(req.isAsyncStarted());
+        assertThrows(IOException.class, () -> emitter.send("closed"));
+    }
+
+    @Test
+    void clientDisconnected() throws Exception {
+        var emitter = new SseEmitter();
+        var error = new AtomicReference<Throwable>();
+        emitter.onError(error::set);
+        emitter.start(req, resp, 0, scheduler, 20);
+        Thread.sleep(100);
+        assertTrue(this.output.content().startsWith(":\n\n"));
+
+        // detected by heartbeat
+        this.output.broken = true;
+        for (int i = 0; i < 50 && !emitter.isClosed(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(emitter.isClosed());
+        assertEquals("Broken pipe", error.get().getMessage());
+        assertFalse(req.isAsyncStarted());
+    }
+
+    @Test
+    void noTimeoutByDefault() throws Exception {
+        var emitter = new SseEmitter();
+        emitter.start(req, resp, 30_000, scheduler, 0);
+        assertEquals(0, req.getAsyncContext().getTimeout());
+        emitter.complete();
+
+        // async is not supported, container thread is held until closed:
+        var blocking = new SseEmitter();
+        var timeout = new AtomicReference<Boolean>(false);
+        blocking.onTimeout(() -> timeout.set(true));
+        this.req = new MockHttpServletRequest("GET", "/events");
+        Thread t = new Thread(() -> {
+            try {
+                blocking.start(req, resp, 50, scheduler, 20);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        t.start();
+        // outlives async timeout while heartbeats flow:
+        Thread.sleep(200);
+        assertFalse(blocking.isClosed());
+        assertFalse(timeout.get());
+        assertTrue(this.output.content().startsWith(":\n\n"));
+        blocking.complete();
+        t.join(1000);
+        assertFalse(t.isAlive());
+        assertFalse(timeout.get());
+    }
+
+    static class TestOutputStream extends ServletOutputStream {
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        volatile boolean ready = true;
+        volatile boolean broken = false;
+        WriteListener listener;
+        int flushes;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            synchronized (buffer) {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        String content() {
+            synchronized (buffer) {
+                return buffer.toString(StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.tripleyuan.winter.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaticResourceHandlerTest {
+
+    @TempDir
+    Path dir;
+
+    MockServletContext ctx;
+    StaticResourceHandler handler;
+
+    Path js;
+    Path gz;
+    String content = "function hello() {\n    return 'hello';\n}\n".repeat(20);
+    long now = System.currentTimeMillis() / 1000 * 1000;
+
+    @BeforeEach
+    void init() throws IOException {
+        this.ctx = new MockServletContext("file:" + this.dir.toAbsolutePath());
+        this.handler = new StaticResourceHandler(null, 1024 * 1024);
+        this.js = this.dir.resolve("app.js");
+        this.gz = this.dir.resolve("app.js.gz");
+        Files.writeString(this.js, this.content);
+        setModified(this.js, 0);
+    }
+
+    @Test
+    void precompressedSibling() throws IOException {
+        byte[] data = gzip("/* precompressed */" + this.content);
+        Files.write(this.gz, data);
+        // same time, e.g. "gzip -k" keeps time of source
+        setModified(this.gz, 0);
+        assertArrayEquals(data, get().getContentAsByteArray());
+    }
+
+    @Test
+    void staleSiblingIgnored() throws IOException {
+        Files.write(this.gz, gzip("/* outdated */"));
+        setModified(this.gz, -10_000);
+        MockHttpServletResponse resp = get();
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        // gzip-ed from current content:
+        assertEquals(this.content, gunzip(resp.getContentAsByteArray()));
+    }
+
+    @Test
+    void siblingChangedAfterCached() throws IOException {
+        assertEquals(this.content, gunzip(get().getContentAsByteArray()));
+
+        // added:
+        byte[] data = gzip("/* v1 */" + this.content);
+        Files.write(this.gz, data);
+        setModified(this.gz, 1000);
+        assertArrayEquals(data, get().getContentAsByteArray());
+
+        // changed:
+        data = gzip("/* v2 */" + this.content);
+        Files.write(this.gz, data);
+        setModified(this.gz, 2000);
+        assertArrayEquals(data, get().getContentAsByteArray());
+
+        // deleted:
+        Files.delete(this.gz);
+        assertEquals(this.content, gunzip(get().getContentAsByteArray()));
+    }
+
+    MockHttpServletResponse get() throws IOException {
+        var req = new MockHttpServletRequest(this.ctx, "GET", "/app.js");
+        req.addHeader("Accept-Encoding", "gzip");
+        var resp = new MockHttpServletResponse();
+        this.handler.handle("/app.js", req, resp);
+        assertEquals(200, resp.getStatus());
+        assertEquals("gzip", resp.getHeader("Content-Encoding"));
+        return resp;
+    }
+
+    void setModified(Path file, long offset) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(this.now + offset));
+    }
+
+    byte[] gzip(String s) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(buffer)) {
+            out.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return buffer.toByteArray();
+    }
+
+    String gunzip(byte[] data) throws IOException {
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
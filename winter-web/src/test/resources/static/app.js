@@ -0,0 +1,3 @@
+function hello() {
+    console.log("Hello, winter!");
+}
@@ -0,0 +1,21 @@
+// precompressed by build
+export const value0 = "value-0";
+export const value1 = "value-1";
+export const value2 = "value-2";
+export const value3 = "value-3";
+export const value4 = "value-4";
+export const value5 = "value-5";
+export const value6 = "value-6";
+export const value7 = "value-7";
+export const value8 = "value-8";
+export const value9 = "value-9";
+export const value10 = "value-10";
+export const value11 = "value-11";
+export const value12 = "value-12";
+export const value13 = "value-13";
+export const value14 = "value-14";
+export const value15 = "value-15";
+export const value16 = "value-16";
+export const value17 = "value-17";
+export const value18 = "value-18";
+export const value19 = "value-19";